@@ -0,0 +1,42 @@
+package com.adex.wordgame.benchmark;
+
+import com.adex.wordgame.file.DataReader;
+import com.adex.wordgame.file.FileCompressor;
+import com.adex.wordgame.util.Pair;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks decoding the shipped English language file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileCompressorBenchmark {
+
+    private byte[] english;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        english = DataReader.getFileContent("resources/languages/english.lng");
+    }
+
+    @Benchmark
+    public String decode() {
+        return FileCompressor.decode(english);
+    }
+
+    /**
+     * Reads and decodes the file and splits it into letter data and words.
+     */
+    @Benchmark
+    public Pair<ArrayList<Pair<Integer, Integer>>, String[]> getLanguageWords() throws IOException {
+        return DataReader.getLanguageWords("english");
+    }
+}
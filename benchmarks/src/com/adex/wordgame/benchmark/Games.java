@@ -0,0 +1,84 @@
+package com.adex.wordgame.benchmark;
+
+import com.adex.wordgame.Board;
+import com.adex.wordgame.CharBoard;
+import com.adex.wordgame.PackedBoard;
+import com.adex.wordgame.WordGame;
+import com.adex.wordgame.WordList;
+
+import java.util.Random;
+
+/**
+ * Sets up and plays games the same way for every benchmark, so results are comparable between runs.
+ */
+public class Games {
+
+    /**
+     * Parses board size from format "WIDTHxHEIGHT".
+     */
+    public static int[] parseSize(String size) {
+        String[] parts = size.split("x");
+        return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+
+    /**
+     * Creates a game with the default size and widens it with {@link WordGame#increaseWidth(int)} and
+     * {@link WordGame#increaseHeight(int)} if needed.
+     */
+    public static WordGame create(int width, int height, Random random, WordList wordList) {
+        return create(width, height, random, wordList, false);
+    }
+
+    /**
+     * Creates a game like {@link #create(int, int, Random, WordList)}, storing the board in a {@link PackedBoard} if packed.
+     */
+    public static WordGame create(int width, int height, Random random, WordList wordList, boolean packed) {
+        int defaultWidth = WordGame.DEFAULT_GAME_WIDTH;
+        int defaultHeight = WordGame.DEFAULT_GAME_HEIGHT;
+        Board board = packed ? new PackedBoard(defaultWidth, defaultHeight) : new CharBoard(defaultWidth, defaultHeight);
+
+        WordGame game = WordGame.create(board, random, wordList);
+        if (width > WordGame.DEFAULT_GAME_WIDTH) game.increaseWidth(width - WordGame.DEFAULT_GAME_WIDTH);
+        if (height > WordGame.DEFAULT_GAME_HEIGHT) game.increaseHeight(height - WordGame.DEFAULT_GAME_HEIGHT);
+        return game;
+    }
+
+    /**
+     * Spawns a tile, rotates it randomly, moves it towards a random column and drops it down without placing it.
+     * There must not be a tile in the game.
+     */
+    public static void dropNext(WordGame game, Random random) {
+        game.tick(); // spawns the tile
+        moveRandomly(game, random);
+        game.dropDownFull();
+    }
+
+    /**
+     * Rotates the falling tile randomly and moves it towards a random column.
+     * The tile must be where it spawned.
+     */
+    public static void moveRandomly(WordGame game, Random random) {
+        for (int i = random.nextInt(4); i > 0; i--) game.rotateClockwise();
+
+        int x = game.getWidth() / 2;
+        int target = random.nextInt(game.getWidth());
+        while (x > target && game.canMoveLeft()) {
+            game.moveLeft();
+            x--;
+        }
+        while (x < target && game.canMoveRight()) {
+            game.moveRight();
+            x++;
+        }
+    }
+
+    /**
+     * Drops and places the next tile.
+     *
+     * @return false if the game ended
+     */
+    public static boolean placeNext(WordGame game, Random random) {
+        dropNext(game, random);
+        return game.dropDownFull();
+    }
+}
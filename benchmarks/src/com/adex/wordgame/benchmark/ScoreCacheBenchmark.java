@@ -0,0 +1,128 @@
+package com.adex.wordgame.benchmark;
+
+import com.adex.wordgame.Placement;
+import com.adex.wordgame.ScoreCache;
+import com.adex.wordgame.WordGame;
+import com.adex.wordgame.WordList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks finding and scoring every placement of a tile, with and without a score cache.
+ * The cache is kept between invocations, like it would be between the nodes of a search, and cleared for each iteration.
+ * <p>
+ * Every iteration starts with new games, and after each invocation the tile of the searched game is placed and the next one spawned,
+ * so no board is searched twice and the cache only hits on lines shared between boards.
+ * Hits and misses of the cache while searching are reported as secondary results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoreCacheBenchmark {
+
+    public static final int GAMES = 64;
+    public static final int CAPACITY = 1 << 14;
+
+    @Param({"48x20"})
+    public String size;
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    private WordList wordList;
+    private int width;
+    private int height;
+
+    private WordGame[] games;
+    private ScoreCache scoreCache;
+    private Random random;
+    private long seed;
+    private int index;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CacheCounters {
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wordList = WordList.get(WordList.Language.ENGLISH);
+        int[] size = Games.parseSize(this.size);
+        width = size[0];
+        height = size[1];
+
+        scoreCache = cache ? new ScoreCache(wordList, CAPACITY) : null;
+        games = new WordGame[GAMES];
+        random = new Random(0);
+        seed = 0;
+    }
+
+    /**
+     * Prepares new games with a partly filled board and a falling tile.
+     */
+    @Setup(Level.Iteration)
+    public void createGames() {
+        if (scoreCache != null) scoreCache.clear();
+        for (int i = 0; i < GAMES; i++) games[i] = createGame();
+        index = 0;
+    }
+
+    private WordGame createGame() {
+        int prefill = width * height / 32;
+        while (true) {
+            Random random = new Random(seed++);
+            WordGame game = Games.create(width, height, random, wordList);
+
+            boolean ended = false;
+            for (int j = 0; j < prefill && !ended; j++) ended = !Games.placeNext(game, random);
+            if (ended) continue;
+
+            game.tick(); // spawns the tile
+            game.setScoreCache(scoreCache);
+            return game;
+        }
+    }
+
+    /**
+     * Places the tile of the searched game and spawns the next one, or replaces the game if it ended.
+     */
+    @TearDown(Level.Invocation)
+    public void advance() {
+        int searched = (index + GAMES - 1) % GAMES;
+        WordGame game = games[searched];
+
+        Games.moveRandomly(game, random);
+        game.dropDownFull();
+        if (game.dropDownFull()) game.tick(); // places the tile and spawns the next one
+        else games[searched] = createGame();
+    }
+
+    @Benchmark
+    public List<Placement> findPlacements(CacheCounters counters) {
+        WordGame game = games[index];
+        index = (index + 1) % GAMES;
+        if (scoreCache == null) return game.findPlacements();
+
+        // Lookups made while placing the tiles are not counted
+        long hits = scoreCache.getHits();
+        long misses = scoreCache.getMisses();
+        List<Placement> placements = game.findPlacements();
+        counters.hits += scoreCache.getHits() - hits;
+        counters.misses += scoreCache.getMisses() - misses;
+        return placements;
+    }
+}
@@ -0,0 +1,31 @@
+package com.adex.wordgame.benchmark;
+
+import com.adex.wordgame.Tile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks looking up the offsets of every shape and rotation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TileBenchmark {
+
+    private static final Tile.Shape[] SHAPES = Tile.Shape.values();
+    private static final Tile.Rotation[] ROTATIONS = Tile.Rotation.values();
+
+    @Benchmark
+    public void getOffSets(Blackhole blackhole) {
+        for (Tile.Shape shape : SHAPES) {
+            for (Tile.Rotation rotation : ROTATIONS) {
+                blackhole.consume(Tile.getOffSets(shape, rotation));
+            }
+        }
+    }
+}
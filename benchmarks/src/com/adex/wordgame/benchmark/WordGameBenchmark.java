@@ -0,0 +1,114 @@
+package com.adex.wordgame.benchmark;
+
+import com.adex.wordgame.WordGame;
+import com.adex.wordgame.WordList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks placing tiles and playing whole games on boards of different sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordGameBenchmark {
+
+    public static final int MAX_PLACEMENTS = 100;
+    public static final int BATCH_SIZE = 128;
+
+    @Param({"12x10", "48x20", "192x40", "768x80"})
+    public String size;
+
+    /**
+     * If the board is stored in a {@link com.adex.wordgame.PackedBoard}
+     */
+    @Param({"false", "true"})
+    public boolean packed;
+
+    private WordList wordList;
+    private int width;
+    private int height;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wordList = WordList.get(WordList.Language.ENGLISH);
+
+        int[] size = Games.parseSize(this.size);
+        width = size[0];
+        height = size[1];
+    }
+
+    /**
+     * Plays a game with a fixed seed until it ends or {@link #MAX_PLACEMENTS} tiles have been placed.
+     */
+    @Benchmark
+    public int playGame() {
+        Random random = new Random(width * 31L + height);
+        WordGame game = Games.create(width, height, random, wordList, packed);
+
+        for (int i = 0; i < MAX_PLACEMENTS; i++) {
+            if (!Games.placeNext(game, random)) break;
+        }
+
+        return game.getScore();
+    }
+
+    /**
+     * Places a dropped tile on a partly filled board, which includes scoring it.
+     * Placing changes the board, so each game in the batch is used once.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10, batchSize = BATCH_SIZE)
+    @Measurement(iterations = 20, batchSize = BATCH_SIZE)
+    public boolean placeTile(PreparedGames games) {
+        return games.next().placeTile();
+    }
+
+    @State(Scope.Thread)
+    public static class PreparedGames {
+
+        private WordGame[] games;
+        private int index;
+
+        @Setup(Level.Iteration)
+        public void setup(WordGameBenchmark benchmark) {
+            int width = benchmark.width;
+            int height = benchmark.height;
+            int prefill = width * height / 32;
+
+            games = new WordGame[BATCH_SIZE];
+            long seed = 0;
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                games[i] = prepare(width, height, prefill, seed++, benchmark.wordList, benchmark.packed);
+                while (games[i] == null) games[i] = prepare(width, height, prefill, seed++, benchmark.wordList, benchmark.packed);
+            }
+            index = 0;
+        }
+
+        /**
+         * Places prefill tiles and drops one more.
+         *
+         * @return the game or null if it ended before the board was filled
+         */
+        private static WordGame prepare(int width, int height, int prefill, long seed, WordList wordList, boolean packed) {
+            Random random = new Random(seed);
+            WordGame game = Games.create(width, height, random, wordList, packed);
+            for (int i = 0; i < prefill; i++) {
+                if (!Games.placeNext(game, random)) return null;
+            }
+
+            Games.dropNext(game, random);
+            return game;
+        }
+
+        public WordGame next() {
+            return games[index++];
+        }
+    }
+}
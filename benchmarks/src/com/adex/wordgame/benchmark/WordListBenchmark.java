@@ -0,0 +1,84 @@
+package com.adex.wordgame.benchmark;
+
+import com.adex.wordgame.WordList;
+import com.adex.wordgame.WordTrie;
+import com.adex.wordgame.file.DataReader;
+import com.adex.wordgame.util.Pair;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks looking up words and loading the English word list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordListBenchmark {
+
+    public static final int CANDIDATE_COUNT = 1024;
+
+    private WordList wordList;
+
+    /**
+     * Half of the candidates are words and half random letters, which are almost never words.
+     */
+    private String[] candidates;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        wordList = WordList.get(WordList.Language.ENGLISH);
+
+        ArrayList<String> words = new ArrayList<>();
+        for (String word : new String(DataReader.getFileContent("resources/languages/raw/english.txt")).split("\n")) {
+            if (word.length() >= 4 && word.length() <= 9) words.add(word);
+        }
+
+        Random random = new Random(0);
+        candidates = new String[CANDIDATE_COUNT];
+        for (int i = 0; i < CANDIDATE_COUNT; i += 2) {
+            candidates[i] = words.get(random.nextInt(words.size()));
+
+            char[] letters = new char[4 + random.nextInt(6)];
+            for (int j = 0; j < letters.length; j++) letters[j] = wordList.getLetter(random);
+            candidates[i + 1] = new String(letters);
+        }
+    }
+
+    /**
+     * Scores all {@link #CANDIDATE_COUNT} candidates.
+     */
+    @Benchmark
+    public int getScore() {
+        int score = 0;
+        for (String candidate : candidates) score += wordList.getScore(candidate);
+        return score;
+    }
+
+    /**
+     * Loads the word list and waits until its words are loaded.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public WordList load() {
+        WordList loaded = new WordList(WordList.Language.ENGLISH);
+        loaded.getWordsLoaded().join();
+        return loaded;
+    }
+
+    /**
+     * Decodes the encoded language into a trie, which is what loading the words does on another thread if the language isn't compiled.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public WordTrie loadEncodedWords() throws IOException {
+        Pair<ArrayList<Pair<Integer, Integer>>, String[]> language = DataReader.getLanguageWords(WordList.Language.ENGLISH.path);
+        return new WordTrie(language.second, language.first.size());
+    }
+}
@@ -0,0 +1,207 @@
+package com.adex.wordgame;
+
+import java.util.Arrays;
+
+/**
+ * Occupied cells of a board as bits.
+ * Each row takes as many longs as its width requires, lowest bit of the first long being x = 0.
+ * Used for checking if a tile fits with a few bitwise operations per row.
+ * <p>
+ * The cells are also stored by column, lowest bit of the first long being y = 0,
+ * so runs of adjacent tiles can be found with a bit scan in both directions.
+ * <p>
+ * Rows above the height of the board are treated as empty.
+ */
+public class BitBoard {
+
+    private final int width;
+    private final int height;
+
+    private final int longsPerRow;
+    private final long[] rows;
+
+    private final int longsPerColumn;
+    private final long[] columns;
+
+    public BitBoard(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        longsPerRow = (width + 63) >>> 6;
+        rows = new long[longsPerRow * height];
+
+        longsPerColumn = (height + 63) >>> 6;
+        columns = new long[longsPerColumn * width];
+    }
+
+    public BitBoard(BitBoard board) {
+        width = board.width;
+        height = board.height;
+
+        longsPerRow = board.longsPerRow;
+        rows = board.rows.clone();
+
+        longsPerColumn = board.longsPerColumn;
+        columns = board.columns.clone();
+    }
+
+    /**
+     * Creates a bitboard with every non-empty tile set.
+     */
+    public static BitBoard of(char[][] tiles, int width, int height) {
+        BitBoard board = new BitBoard(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (tiles[y][x] != ' ') board.set(x, y);
+            }
+        }
+
+        return board;
+    }
+
+    /**
+     * Creates a bitboard with every non-empty tile set.
+     */
+    public static BitBoard of(Board tiles) {
+        BitBoard board = new BitBoard(tiles.getWidth(), tiles.getHeight());
+        char[] buffer = new char[board.width];
+        for (int y = 0; y < board.height; y++) {
+            char[] row = tiles.getRow(y, 0, board.width - 1, buffer);
+            for (int x = 0; x < board.width; x++) {
+                if (row[x] != ' ') board.set(x, y);
+            }
+        }
+
+        return board;
+    }
+
+    public void set(int x, int y) {
+        rows[y * longsPerRow + (x >>> 6)] |= 1L << x;
+        columns[x * longsPerColumn + (y >>> 6)] |= 1L << y;
+    }
+
+    public void clear(int x, int y) {
+        rows[y * longsPerRow + (x >>> 6)] &= ~(1L << x);
+        columns[x * longsPerColumn + (y >>> 6)] &= ~(1L << y);
+    }
+
+    /**
+     * Clears every tile.
+     */
+    public void clear() {
+        Arrays.fill(rows, 0);
+        Arrays.fill(columns, 0);
+    }
+
+    public boolean isSet(int x, int y) {
+        return (rows[y * longsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Returns up to 64 bits of the row starting from x, lowest bit being x.
+     * Bits past the width of the board are 0.
+     */
+    public long getBits(int x, int y) {
+        return getBits(rows, longsPerRow, y, x);
+    }
+
+    /**
+     * Returns up to 64 bits of the column starting from y, lowest bit being y.
+     * Bits past the height of the board are 0.
+     */
+    public long getColumnBits(int x, int y) {
+        return getBits(columns, longsPerColumn, x, y);
+    }
+
+    /**
+     * Returns the amount of set cells directly left of the cell, checking at most max cells.
+     *
+     * @param max 0—63
+     */
+    public int countLeft(int x, int y, int max) {
+        return countBefore(rows, longsPerRow, y, x, max);
+    }
+
+    /**
+     * Returns the amount of set cells directly right of the cell, checking at most max cells.
+     *
+     * @param max 0—63
+     */
+    public int countRight(int x, int y, int max) {
+        return countAfter(rows, longsPerRow, y, x, max, width);
+    }
+
+    /**
+     * Returns the amount of set cells directly below the cell, checking at most max cells.
+     *
+     * @param max 0—63
+     */
+    public int countBelow(int x, int y, int max) {
+        return countBefore(columns, longsPerColumn, x, y, max);
+    }
+
+    /**
+     * Returns the amount of set cells directly above the cell, checking at most max cells.
+     *
+     * @param max 0—63
+     */
+    public int countAbove(int x, int y, int max) {
+        return countAfter(columns, longsPerColumn, x, y, max, height);
+    }
+
+    private static long getBits(long[] lines, int longsPerLine, int line, int from) {
+        int index = line * longsPerLine + (from >>> 6);
+        int shift = from & 63;
+
+        long bits = lines[index] >>> shift;
+        if (shift != 0 && (from >>> 6) + 1 < longsPerLine) bits |= lines[index + 1] << (64 - shift);
+        return bits;
+    }
+
+    private static int countBefore(long[] lines, int longsPerLine, int line, int index, int max) {
+        int from = Math.max(0, index - max);
+        if (from == index) return 0;
+
+        // Cells from 'from' to index - 1 as the highest bits
+        long bits = getBits(lines, longsPerLine, line, from) << (64 - (index - from));
+        return Long.numberOfLeadingZeros(~bits);
+    }
+
+    private static int countAfter(long[] lines, int longsPerLine, int line, int index, int max, int length) {
+        if (index + 1 >= length) return 0;
+
+        long bits = getBits(lines, longsPerLine, line, index + 1);
+        return Math.min(max, Long.numberOfTrailingZeros(~bits));
+    }
+
+    /**
+     * Checks if a tile with the mask fits at the coordinates.
+     * The tile must be inside the board horizontally and above the bottom,
+     * and none of its tiles below the top of the board can be occupied.
+     */
+    public boolean fits(Tile.Mask mask, int x, int y) {
+        int left = x + mask.minX;
+        if (left < 0 || left + mask.width > width) return false; // outside board
+
+        int bottom = y + mask.minY;
+        if (bottom < 0) return false; // below board
+
+        long[] maskRows = mask.rows;
+        for (int i = 0; i < maskRows.length; i++) {
+            int row = bottom + i;
+            if (row >= height) break; // not in board
+
+            if ((getBits(left, row) & maskRows[i]) != 0) return false; // tile occupied
+        }
+
+        return true;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,131 @@
+package com.adex.wordgame;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Blocked Bloom filter of word keys, see {@link WordSet}.
+ * Used in front of the word set to reject most strings which are not words with a single array read.
+ * <p>
+ * Every bit of a key is in the same long, chosen by the hash of the key,
+ * so a lookup reads one long instead of one per hash function.
+ * This needs slightly more bits for the same false positive rate than a plain Bloom filter.
+ * <p>
+ * The filter can't be changed after creating it, so it can be shared between threads.
+ * Counting lookups is optional, as updating the shared counters costs about as much as the lookup itself.
+ */
+public class BloomFilter {
+
+    public static final int MAX_HASHES = 10; // 6 bits for each position in a long
+
+    private final long[] blocks;
+    private final int blockMask;
+    private final int hashes;
+
+    private final boolean counting;
+    private final LongAdder passed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param set               words to add
+     * @param falsePositiveRate probability of a key which is not a word passing the filter, between 0 and 1
+     * @param counting          whether lookups are counted, see {@link #getPassed()} and {@link #getRejected()}
+     */
+    public BloomFilter(WordSet set, double falsePositiveRate, boolean counting) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1, got " + falsePositiveRate);
+        }
+
+        double bitsPerKey = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.counting = counting;
+        hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerKey * Math.log(2))));
+
+        long neededBlocks = ((long) Math.ceil(Math.max(1, set.size()) * bitsPerKey) + 63) / 64;
+        if (neededBlocks > 1 << 30) throw new IllegalArgumentException("Too many words for the filter!");
+
+        int blockCount = Integer.highestOneBit((int) neededBlocks);
+        if (blockCount < neededBlocks) blockCount *= 2; // rounding up to a power of 2
+        blocks = new long[blockCount];
+        blockMask = blockCount - 1;
+
+        set.forEachKey(key -> blocks[getBlock(key)] |= getMask(key));
+    }
+
+    private int getBlock(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & blockMask;
+    }
+
+    /**
+     * Returns the bits of the key in its block, taking 6 bits of a second hash for each.
+     */
+    private long getMask(long key) {
+        long hash = key * 0xC2B2AE3D27D4EB4FL;
+        hash ^= hash >>> 29;
+
+        long mask = 0;
+        for (int i = 0; i < hashes; i++) {
+            mask |= 1L << hash;
+            hash >>>= 6;
+        }
+
+        return mask;
+    }
+
+    /**
+     * Checks if the key might be a word.
+     * If false, the key is certainly not a word.
+     */
+    public boolean mightContain(long key) {
+        long mask = getMask(key);
+        boolean pass = (blocks[getBlock(key)] & mask) == mask;
+
+        if (counting) {
+            if (pass) passed.increment();
+            else rejected.increment();
+        }
+
+        return pass;
+    }
+
+    public boolean isCounting() {
+        return counting;
+    }
+
+    public int getHashCount() {
+        return hashes;
+    }
+
+    /**
+     * Returns the size of the filter in bits.
+     */
+    public long getBitCount() {
+        return 64L * blocks.length;
+    }
+
+    /**
+     * Returns the amount of lookups which might have been words, 0 if lookups are not counted.
+     */
+    public long getPassed() {
+        return passed.sum();
+    }
+
+    /**
+     * Returns the amount of lookups which were certainly not words, 0 if lookups are not counted.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public void resetCounters() {
+        passed.reset();
+        rejected.reset();
+    }
+
+    @Override
+    public String toString() {
+        long passed = getPassed();
+        long rejected = getRejected();
+        long total = passed + rejected;
+        return "passed: " + passed + ", rejected: " + rejected
+                + (total == 0 ? "" : String.format(", reject rate: %.1f%%", 100d * rejected / total));
+    }
+}
@@ -0,0 +1,47 @@
+package com.adex.wordgame;
+
+/**
+ * Letters on the board of a game, y = 0 being the bottom row.
+ * Empty tiles are ' '.
+ *
+ * @see CharBoard
+ * @see PackedBoard
+ */
+public interface Board {
+
+    int getWidth();
+
+    int getHeight();
+
+    char get(int x, int y);
+
+    void set(int x, int y, char letter);
+
+    /**
+     * Empties every tile.
+     */
+    void clear();
+
+    /**
+     * Returns an array with the letters of the row from x = from to x = to (inclusive) at their x coordinates.
+     * The array is either the row itself or the buffer, so it must not be modified.
+     *
+     * @param buffer array at least as long as the width of the board, used if the row isn't stored as chars
+     */
+    char[] getRow(int y, int from, int to, char[] buffer);
+
+    /**
+     * Returns a copy of the board.
+     * Changing either board doesn't change the other.
+     * Copying may still change how this board stores its letters, see {@link CharBoard},
+     * so it must not be called at the same time as any other call on this board.
+     */
+    Board copy();
+
+    /**
+     * Returns a board of the same type with the new size.
+     * The letters are moved right by offsetX, and letters outside the new size are left out.
+     * This board must not be used afterwards.
+     */
+    Board resize(int width, int height, int offsetX);
+}
@@ -0,0 +1,114 @@
+package com.adex.wordgame;
+
+import java.util.Arrays;
+
+/**
+ * Board with an array of chars for each row.
+ * Rows are scored in place without unpacking them.
+ * <p>
+ * Copies share rows until either board changes them, so copying takes time proportional to the height instead of width * height.
+ * Copying marks the rows of the board as shared, so it writes to the board being copied
+ * and must not be called at the same time as any other call on that board, including another copy.
+ */
+public class CharBoard implements Board {
+
+    private final int width;
+    private final int height;
+
+    private final char[][] rows;
+    private final boolean[] ownedRows; // rows shared with a copy must be copied before changing them
+
+    public CharBoard(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        rows = new char[height][width];
+        for (int y = 0; y < height; y++) {
+            Arrays.fill(rows[y], ' ');
+        }
+
+        ownedRows = new boolean[height];
+        Arrays.fill(ownedRows, true);
+    }
+
+    private CharBoard(int width, int height, char[][] rows, boolean[] ownedRows) {
+        this.width = width;
+        this.height = height;
+        this.rows = rows;
+        this.ownedRows = ownedRows;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public char get(int x, int y) {
+        return rows[y][x];
+    }
+
+    @Override
+    public void set(int x, int y, char letter) {
+        if (!ownedRows[y]) {
+            rows[y] = rows[y].clone();
+            ownedRows[y] = true;
+        }
+
+        rows[y][x] = letter;
+    }
+
+    @Override
+    public void clear() {
+        for (int y = 0; y < height; y++) {
+            if (!ownedRows[y]) {
+                rows[y] = new char[width];
+                ownedRows[y] = true;
+            }
+
+            Arrays.fill(rows[y], ' ');
+        }
+    }
+
+    @Override
+    public char[] getRow(int y, int from, int to, char[] buffer) {
+        return rows[y];
+    }
+
+    @Override
+    public CharBoard copy() {
+        Arrays.fill(ownedRows, false); // this board must also copy the rows before changing them
+        return new CharBoard(width, height, rows.clone(), new boolean[height]);
+    }
+
+    @Override
+    public CharBoard resize(int width, int height, int offsetX) {
+        char[][] newRows = new char[height][];
+        boolean[] newOwnedRows = new boolean[height];
+
+        for (int y = 0; y < height; y++) {
+            if (y < this.height && width == this.width && offsetX == 0) { // row doesn't change
+                newRows[y] = rows[y];
+                newOwnedRows[y] = ownedRows[y];
+                continue;
+            }
+
+            newRows[y] = new char[width];
+            newOwnedRows[y] = true;
+            Arrays.fill(newRows[y], ' ');
+            if (y >= this.height) continue;
+
+            int from = Math.max(0, -offsetX);
+            int to = Math.min(this.width, width - offsetX);
+            if (from < to) System.arraycopy(rows[y], from, newRows[y], from + offsetX, to - from);
+        }
+
+        Arrays.fill(ownedRows, false); // rows now belong to the new board
+        return new CharBoard(width, height, newRows, newOwnedRows);
+    }
+}
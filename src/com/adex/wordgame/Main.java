@@ -1,17 +1,60 @@
 package com.adex.wordgame;
 
+import com.adex.wordgame.render.TerminalRenderer;
+import com.adex.wordgame.replay.ReplayLog;
+import com.adex.wordgame.replay.ReplayRecorder;
+import com.adex.wordgame.replay.Replayer;
+import com.adex.wordgame.server.GameServer;
+import com.adex.wordgame.simulation.MovePolicy;
+import com.adex.wordgame.simulation.Simulation;
+import com.adex.wordgame.simulation.SimulationResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Scanner;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class Main {
 
     public static void main(String[] args) {
-        WordGame game = WordGame.create(ThreadLocalRandom.current());
+        if (args.length > 0 && args[0].equals("simulate")) {
+            simulate(args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("server")) {
+            serve(args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("replay")) {
+            replay(args);
+            return;
+        }
+
+        // Loading the words and warming up scoring while the first frames are drawn
+        new Preloader(EnumSet.of(WordList.Language.ENGLISH), Preloader.DEFAULT_WARM_UP_PLACEMENTS).start();
+
+        // Arguments: record <log file>
+        ReplayRecorder recorder = null;
+        WordGame game;
+        if (args.length > 1 && args[0].equals("record")) {
+            recorder = new ReplayRecorder(ThreadLocalRandom.current().nextLong(), WordList.Language.ENGLISH);
+            game = recorder.getGame();
+        } else {
+            game = WordGame.create(ThreadLocalRandom.current());
+        }
+
+        TerminalRenderer renderer = new TerminalRenderer();
 
         Scanner scanner = new Scanner(System.in);
         loop:
         while (true) {
-            System.out.println(game);
+            renderer.render(game);
 
             String in = scanner.nextLine();
             if (!in.isEmpty()) switch (in.charAt(0)) {
@@ -25,5 +68,85 @@ public class Main {
 
             if (!game.tick()) break;
         }
+
+        System.out.println("Score: " + game.getScore());
+
+        if (recorder != null) {
+            try {
+                Files.write(Path.of(args[1]), recorder.getLog().toBytes());
+            } catch (IOException e) {
+                System.out.println("Failed to save replay log: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Plays random games without rendering them.
+     * Arguments: simulate [game count] [seed]
+     */
+    private static void simulate(String[] args) {
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        Simulation simulation = new Simulation(WordList.defaultLanguage(), MovePolicy.RANDOM);
+
+        long start = System.nanoTime();
+        SimulationResult result = simulation.run(games, seed);
+        long time = System.nanoTime() - start;
+
+        System.out.println(result);
+        System.out.println("Took " + time / 1000000 + " ms");
+    }
+
+    /**
+     * Hosts games over TCP until the process is stopped.
+     * Arguments: server [port] [tick millis]
+     */
+    private static void serve(String[] args) {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+        long tickMillis = args.length > 2 ? Long.parseLong(args[2]) : GameServer.DEFAULT_TICK_MILLIS;
+
+        // Players are accepted right away, games start with the letter data and scoring waits for the words if needed
+        Preloader preloader = new Preloader(EnumSet.allOf(WordList.Language.class), Preloader.DEFAULT_WARM_UP_PLACEMENTS);
+        preloader.start().whenComplete((result, e) -> System.out.println(e == null ? "Ready: " + preloader : "Not ready: " + preloader));
+
+        try {
+            GameServer server = new GameServer(port, WordList.defaultLanguage(), tickMillis);
+            server.start();
+            System.out.println("Listening on port " + server.getPort());
+        } catch (IOException e) {
+            System.out.println("Failed to start server:\n" + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays the logs and checks their scores.
+     * Arguments: replay [log files...]
+     */
+    private static void replay(String[] args) {
+        List<ReplayLog> logs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            try {
+                logs.add(ReplayLog.fromBytes(Files.readAllBytes(Path.of(args[i]))));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Failed to read " + args[i] + ": " + e.getMessage());
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        int[] scores = Replayer.replayAll(logs);
+        long time = System.nanoTime() - start;
+
+        int invalid = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] == logs.get(i).score) continue;
+
+            System.out.println(args[i + 1] + ": score " + logs.get(i).score + ", replayed " + scores[i]);
+            invalid++;
+        }
+
+        System.out.println("Replayed " + logs.size() + " games, " + invalid + " invalid");
+        System.out.println("Took " + time / 1000000 + " ms");
     }
 }
@@ -0,0 +1,139 @@
+package com.adex.wordgame;
+
+import java.util.Arrays;
+
+/**
+ * Board packed into a single array of longs, {@link #LETTERS_PER_LONG} letters of {@link #BITS_PER_LETTER} bits in each.
+ * Each tile is 0 if empty and otherwise the letter - 'A' + 1, so only the first 31 letters from 'A' can be stored.
+ * Each row starts from a new long, lowest bits being x = 0.
+ * <p>
+ * Uses about a third of the memory of {@link CharBoard}, and copying it is a single array copy,
+ * but rows are unpacked into a buffer for scoring.
+ */
+public class PackedBoard implements Board {
+
+    public static final int BITS_PER_LETTER = 5;
+    public static final int LETTERS_PER_LONG = 64 / BITS_PER_LETTER;
+    public static final int MAX_CODE = (1 << BITS_PER_LETTER) - 1;
+
+    private static final char[] LETTERS = new char[MAX_CODE + 1];
+
+    static {
+        LETTERS[0] = ' ';
+        for (int code = 1; code <= MAX_CODE; code++) {
+            LETTERS[code] = (char) ('A' + code - 1);
+        }
+    }
+
+    private final int width;
+    private final int height;
+
+    private final int longsPerRow;
+    private final long[] tiles;
+
+    public PackedBoard(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        longsPerRow = (width + LETTERS_PER_LONG - 1) / LETTERS_PER_LONG;
+        tiles = new long[longsPerRow * height];
+    }
+
+    private PackedBoard(PackedBoard board) {
+        width = board.width;
+        height = board.height;
+
+        longsPerRow = board.longsPerRow;
+        tiles = board.tiles.clone();
+    }
+
+    /**
+     * Returns the code of the letter.
+     */
+    public static int getCode(char letter) {
+        if (letter == ' ') return 0;
+
+        int code = letter - 'A' + 1;
+        if (code < 1 || code > MAX_CODE) throw new IllegalArgumentException("Invalid letter '" + letter + "'");
+        return code;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public char get(int x, int y) {
+        long bits = tiles[y * longsPerRow + x / LETTERS_PER_LONG];
+        return LETTERS[(int) (bits >>> (BITS_PER_LETTER * (x % LETTERS_PER_LONG))) & MAX_CODE];
+    }
+
+    @Override
+    public void set(int x, int y, char letter) {
+        int index = y * longsPerRow + x / LETTERS_PER_LONG;
+        int shift = BITS_PER_LETTER * (x % LETTERS_PER_LONG);
+
+        tiles[index] = (tiles[index] & ~((long) MAX_CODE << shift)) | ((long) getCode(letter) << shift);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(tiles, 0);
+    }
+
+    /**
+     * Unpacks the letters into the buffer, reading each long once.
+     */
+    @Override
+    public char[] getRow(int y, int from, int to, char[] buffer) {
+        if (from > to) return buffer;
+
+        int index = y * longsPerRow + from / LETTERS_PER_LONG;
+        int remaining = LETTERS_PER_LONG - from % LETTERS_PER_LONG; // letters left in bits
+        long bits = tiles[index] >>> (BITS_PER_LETTER * (from % LETTERS_PER_LONG));
+
+        for (int x = from; x <= to; x++) {
+            if (remaining == 0) {
+                bits = tiles[++index];
+                remaining = LETTERS_PER_LONG;
+            }
+
+            buffer[x] = LETTERS[(int) bits & MAX_CODE];
+            bits >>>= BITS_PER_LETTER;
+            remaining--;
+        }
+
+        return buffer;
+    }
+
+    @Override
+    public PackedBoard copy() {
+        return new PackedBoard(this);
+    }
+
+    @Override
+    public PackedBoard resize(int width, int height, int offsetX) {
+        PackedBoard board = new PackedBoard(width, height);
+        int rows = Math.min(height, this.height);
+
+        if (width == this.width && offsetX == 0) { // rows don't change
+            System.arraycopy(tiles, 0, board.tiles, 0, rows * longsPerRow);
+            return board;
+        }
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = Math.max(0, -offsetX); x < Math.min(this.width, width - offsetX); x++) {
+                char letter = get(x, y);
+                if (letter != ' ') board.set(x + offsetX, y, letter);
+            }
+        }
+
+        return board;
+    }
+}
@@ -0,0 +1,30 @@
+package com.adex.wordgame;
+
+/**
+ * Position where a tile can be placed and the score placing it there gives.
+ */
+public class Placement {
+
+    public final int x;
+    public final int y;
+    public final Tile.Rotation rotation;
+
+    public final int score;
+    /**
+     * True if the tile would stick out of the board, which ends the game without score.
+     */
+    public final boolean endsGame;
+
+    public Placement(int x, int y, Tile.Rotation rotation, int score, boolean endsGame) {
+        this.x = x;
+        this.y = y;
+        this.rotation = rotation;
+        this.score = score;
+        this.endsGame = endsGame;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ", " + rotation + "): " + (endsGame ? "ends game" : score);
+    }
+}
@@ -0,0 +1,190 @@
+package com.adex.wordgame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the resting positions a tile can reach with moves, rotations and drops, and scores placing it on each of them.
+ * <p>
+ * The search runs on a copy of the board, so the letters, tile and score of the game are not modified.
+ * Copying marks rows of a {@link CharBoard} as shared though, so the search must not run at the same time as other calls on the game.
+ * Each placement is scored by adding the tile to the copy, scoring it and removing it again,
+ * so the board is copied once per thread instead of once per placement.
+ * <p>
+ * The score cache of the game is not thread safe, so it's only used when scoring on a single thread.
+ */
+class PlacementSearch {
+
+    /**
+     * Tile offsets are within [-3, 3], so positions at most this far outside the board are tracked
+     */
+    private static final int MARGIN = 4;
+    private static final int ROTATIONS = 4;
+
+    /**
+     * Minimum amount of placements scored on each thread
+     */
+    private static final int PLACEMENTS_PER_THREAD = 16;
+
+    private static final Tile.Rotation[] ROTATION_VALUES = Tile.Rotation.values();
+
+    private final WordGame game;
+    private final Tile tile;
+
+    // Positions are stored as indexes of (x, y, rotation)
+    private final int rows;
+    private final boolean[] visited;
+
+    private PlacementSearch(WordGame game, Tile tile) {
+        this.game = game;
+        this.tile = tile;
+
+        rows = Math.max(tile.y, game.getHeight()) + 2 * MARGIN;
+        visited = new boolean[(game.getWidth() + 2 * MARGIN) * rows * ROTATIONS];
+    }
+
+    static List<Placement> find(WordGame game, Tile tile, boolean parallel) {
+        return new PlacementSearch(game, tile).find(parallel);
+    }
+
+    private List<Placement> find(boolean parallel) {
+        // Copies never spawn tiles, so they get a new random instead of a copy of the random of the game
+        WordGame board = new WordGame(game, new Random(0));
+        Tile moving = createTile(board);
+
+        int[] resting = findResting(board, moving);
+        int[] scores = new int[resting.length];
+
+        int threads = parallel ? Math.min(ForkJoinPool.getCommonPoolParallelism(), resting.length / PLACEMENTS_PER_THREAD) : 1;
+        if (threads <= 1) {
+            score(board, moving, resting, scores, 0, resting.length);
+        } else {
+            // Copies share rows with the game, so they are created before the threads start
+            WordGame[] copies = new WordGame[threads];
+            for (int thread = 0; thread < threads; thread++) {
+                copies[thread] = new WordGame(game, new Random(0));
+                copies[thread].setScoreCache(null);
+            }
+
+            IntStream.range(0, threads).parallel().forEach(thread -> {
+                WordGame copy = copies[thread];
+                score(copy, createTile(copy), resting, scores,
+                        resting.length * thread / threads, resting.length * (thread + 1) / threads);
+            });
+        }
+
+        List<Placement> placements = new ArrayList<>(resting.length);
+        for (int i = 0; i < resting.length; i++) {
+            int position = resting[i];
+            boolean endsGame = scores[i] < 0;
+            placements.add(new Placement(getX(position), getY(position), ROTATION_VALUES[getRotation(position)],
+                    endsGame ? 0 : scores[i], endsGame));
+        }
+
+        return placements;
+    }
+
+    /**
+     * Adds a copy of the tile to the board.
+     */
+    private Tile createTile(WordGame board) {
+        Tile copy = new Tile(tile.letters, tile.shape, tile.rotation);
+        board.addTile(copy);
+        return copy;
+    }
+
+    /**
+     * Visits every position reachable from the position of the tile with breadth first search.
+     *
+     * @return positions from which the tile can't move down
+     */
+    private int[] findResting(WordGame board, Tile moving) {
+        int[] queue = new int[visited.length];
+        int head = 0;
+        int tail = 0;
+
+        int start = getPosition(tile.x, tile.y, tile.rotation.ordinal());
+        visited[start] = true;
+        queue[tail++] = start;
+
+        int[] resting = new int[64];
+        int restingCount = 0;
+
+        while (head < tail) {
+            int position = queue[head++];
+            int x = getX(position);
+            int y = getY(position);
+            int rotation = getRotation(position);
+
+            moving.x = x;
+            moving.y = y;
+            moving.setRotation(ROTATION_VALUES[rotation]);
+
+            if (board.canMoveDown()) {
+                tail = visit(getPosition(x, y - 1, rotation), queue, tail);
+            } else {
+                if (restingCount == resting.length) resting = Arrays.copyOf(resting, restingCount * 2);
+                resting[restingCount++] = position;
+            }
+
+            if (board.canMoveLeft()) tail = visit(getPosition(x - 1, y, rotation), queue, tail);
+            if (board.canMoveRight()) tail = visit(getPosition(x + 1, y, rotation), queue, tail);
+            if (board.canMoveClockwise()) tail = visit(getPosition(x, y, (rotation + 1) % ROTATIONS), queue, tail);
+            if (board.canMoveCounterClockwise()) {
+                tail = visit(getPosition(x, y, (rotation + ROTATIONS - 1) % ROTATIONS), queue, tail);
+            }
+        }
+
+        return Arrays.copyOf(resting, restingCount);
+    }
+
+    private int visit(int position, int[] queue, int tail) {
+        if (visited[position]) return tail;
+
+        visited[position] = true;
+        queue[tail] = position;
+        return tail + 1;
+    }
+
+    /**
+     * Scores the positions from index start (inclusive) to end (exclusive).
+     * Positions ending the game get a score of -1.
+     */
+    private void score(WordGame board, Tile moving, int[] positions, int[] scores, int start, int end) {
+        for (int i = start; i < end; i++) {
+            int position = positions[i];
+            moving.x = getX(position);
+            moving.y = getY(position);
+            moving.setRotation(ROTATION_VALUES[getRotation(position)]);
+
+            if (moving.y + moving.getMaxYOffset() >= board.getHeight()) {
+                scores[i] = -1;
+                continue;
+            }
+
+            board.addTileToBoard();
+            scores[i] = board.calculateScore();
+            board.removeTileToBoard();
+        }
+    }
+
+    private int getPosition(int x, int y, int rotation) {
+        return ((x + MARGIN) * rows + (y + MARGIN)) * ROTATIONS + rotation;
+    }
+
+    private int getX(int position) {
+        return position / ROTATIONS / rows - MARGIN;
+    }
+
+    private int getY(int position) {
+        return position / ROTATIONS % rows - MARGIN;
+    }
+
+    private int getRotation(int position) {
+        return position % ROTATIONS;
+    }
+}
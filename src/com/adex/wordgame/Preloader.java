@@ -0,0 +1,147 @@
+package com.adex.wordgame;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads languages on background threads at startup and warms up scoring,
+ * so the first games don't wait for the words or run interpreted code.
+ * <p>
+ * Each language is loaded with {@link WordList#get(WordList.Language)}, and after its words are loaded
+ * a few games are played on it, scoring every placement of each tile, which compiles the scoring code.
+ * The state of each language can be followed while the games are already running.
+ */
+public class Preloader {
+
+    public static final int DEFAULT_WARM_UP_PLACEMENTS = 20000;
+
+    /**
+     * Runs each language on a new daemon thread, so preloading never keeps the process alive
+     */
+    private static final Executor EXECUTOR = runnable -> {
+        Thread thread = new Thread(runnable, "Preloader");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    public enum State {
+        WAITING,
+        LOADING,
+        WARMING_UP,
+        READY,
+        FAILED
+    }
+
+    private final List<WordList.Language> languages;
+    private final int warmUpPlacements;
+
+    private final Map<WordList.Language, State> states;
+    private CompletableFuture<Void> ready;
+
+    /**
+     * @param warmUpPlacements amount of placements to score on each language, 0 to not warm up
+     */
+    public Preloader(Collection<WordList.Language> languages, int warmUpPlacements) {
+        this.languages = new ArrayList<>(languages);
+        this.warmUpPlacements = warmUpPlacements;
+
+        states = new EnumMap<>(WordList.Language.class);
+        for (WordList.Language language : languages) states.put(language, State.WAITING);
+    }
+
+    /**
+     * Starts loading the languages.
+     * Calling again returns the same future.
+     *
+     * @return future completed when every language is ready, exceptionally if any of them failed
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (ready != null) return ready;
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[languages.size()];
+        for (int i = 0; i < futures.length; i++) {
+            WordList.Language language = languages.get(i);
+            futures[i] = CompletableFuture.supplyAsync(() -> {
+                        setState(language, State.LOADING);
+                        return WordList.get(language);
+                    }, EXECUTOR)
+                    .thenCompose(wordList -> wordList.getWordsLoaded().thenApply(loaded -> wordList))
+                    .thenAcceptAsync(wordList -> {
+                        setState(language, State.WARMING_UP);
+                        warmUp(wordList, warmUpPlacements);
+                        setState(language, State.READY);
+                    }, EXECUTOR)
+                    .whenComplete((result, e) -> {
+                        if (e == null) return;
+
+                        setState(language, State.FAILED);
+                        System.out.println("Failed to preload " + language.name + ":\n" + e.getMessage());
+                    });
+        }
+
+        ready = CompletableFuture.allOf(futures);
+        return ready;
+    }
+
+    /**
+     * Plays games with random moves, scoring every placement of each tile, until the given amount has been scored.
+     * Uses a fixed seed, so the work is the same on every start.
+     */
+    public static void warmUp(WordList wordList, int placements) {
+        Random random = new Random(0);
+        WordGame game = null;
+
+        int scored = 0;
+        while (scored < placements) {
+            if (game == null || game.isEnded()) game = WordGame.create(random, wordList);
+
+            game.tick(); // spawns the tile
+            scored += game.findPlacements().size();
+
+            for (int moves = random.nextInt(6); moves > 0; moves--) {
+                if (random.nextBoolean()) game.moveLeft();
+                else game.moveRight();
+            }
+            if (random.nextBoolean()) game.rotateClockwise();
+
+            if (game.dropDownFull()) game.tick(); // places the tile
+        }
+    }
+
+    private synchronized void setState(WordList.Language language, State state) {
+        states.put(language, state);
+    }
+
+    /**
+     * Returns the state of the language or null if it's not preloaded.
+     */
+    public synchronized State getState(WordList.Language language) {
+        return states.get(language);
+    }
+
+    public synchronized boolean isReady() {
+        for (State state : states.values()) {
+            if (state != State.READY) return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<WordList.Language, State> entry : states.entrySet()) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(entry.getKey().name).append(": ").append(entry.getValue().name().toLowerCase(Locale.ROOT).replace('_', ' '));
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,122 @@
+package com.adex.wordgame;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of line scores, used in front of the dictionary when scoring rows and columns.
+ * <p>
+ * The key of a line is 2 longs, so keys are stored and compared without allocating.
+ * The first long of a key can't be 0, as it marks empty entries.
+ * Scores depend on the language, so a cache can only be used by games with the same word list.
+ * <p>
+ * Entries are grouped into sets of {@link #WAYS} by the hash of the key.
+ * When a set is full, the entry to replace is chosen with the CLOCK algorithm:
+ * the hand of the set skips entries which have been read since it last passed them.
+ * <p>
+ * The cache is not thread safe.
+ */
+public class ScoreCache {
+
+    public static final int WAYS = 4;
+
+    private final WordList wordList;
+
+    private final int setMask;
+    private final long[] firstKeys; // 0 if the entry is empty
+    private final long[] secondKeys;
+    private final int[] scores;
+    private final boolean[] referenced;
+    private final byte[] hands;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity Maximum amount of entries, rounded down to a power of 2 and at least {@link #WAYS}
+     */
+    public ScoreCache(WordList wordList, int capacity) {
+        if (capacity < WAYS) throw new IllegalArgumentException("Capacity must be at least " + WAYS + "!");
+
+        this.wordList = wordList;
+
+        int sets = Integer.highestOneBit(capacity / WAYS);
+        setMask = sets - 1;
+
+        firstKeys = new long[sets * WAYS];
+        secondKeys = new long[sets * WAYS];
+        scores = new int[sets * WAYS];
+        referenced = new boolean[sets * WAYS];
+        hands = new byte[sets];
+    }
+
+    /**
+     * Returns the cached score, or -1 if the key is not in the cache.
+     */
+    public int get(long firstKey, long secondKey) {
+        int set = getSet(firstKey, secondKey);
+        for (int i = set * WAYS; i < set * WAYS + WAYS; i++) {
+            if (firstKeys[i] == firstKey && secondKeys[i] == secondKey) {
+                referenced[i] = true;
+                hits++;
+                return scores[i];
+            }
+        }
+
+        misses++;
+        return -1;
+    }
+
+    public void put(long firstKey, long secondKey, int score) {
+        int set = getSet(firstKey, secondKey);
+        int start = set * WAYS;
+
+        // Move the hand until an entry which hasn't been read since the last pass
+        int hand = hands[set];
+        while (referenced[start + hand]) {
+            referenced[start + hand] = false;
+            hand = (hand + 1) % WAYS;
+        }
+
+        firstKeys[start + hand] = firstKey;
+        secondKeys[start + hand] = secondKey;
+        scores[start + hand] = score;
+        hands[set] = (byte) ((hand + 1) % WAYS);
+    }
+
+    private int getSet(long firstKey, long secondKey) {
+        long hash = firstKey * 0x9E3779B97F4A7C15L + secondKey * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ (hash >>> 32)) & setMask;
+    }
+
+    public void clear() {
+        Arrays.fill(firstKeys, 0);
+        Arrays.fill(secondKeys, 0);
+        Arrays.fill(referenced, false);
+        Arrays.fill(hands, (byte) 0);
+        hits = 0;
+        misses = 0;
+    }
+
+    public WordList getWordList() {
+        return wordList;
+    }
+
+    public int getCapacity() {
+        return firstKeys.length;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public String toString() {
+        long total = hits + misses;
+        return "hits: " + hits + ", misses: " + misses
+                + (total == 0 ? "" : String.format(", hit rate: %.1f%%", 100d * hits / total));
+    }
+}
@@ -12,6 +12,16 @@ public class Tile {
     public static int[][] OFFSET_T = {{-1, 0, 0, 0, 0, 1, 1, 0}, {0, 1, 0, 0, 1, 0, 0, -1}, {1, 0, 0, 0, 0, -1, -1, 0}, {0, -1, 0, 0, -1, 0, 0, 1}};
     public static int[][] OFFSET_O = {{0, 0, 1, 0, 1, 1, 0, 1}, {0, 1, 0, 0, 1, 0, 1, 1}, {1, 1, 0, 1, 0, 0, 1, 0}, {1, 0, 1, 1, 0, 1, 0, 0,}};
 
+    private static final Mask[][] MASKS = new Mask[Shape.values().length][Rotation.values().length];
+
+    static {
+        for (Shape shape : Shape.values()) {
+            for (Rotation rotation : Rotation.values()) {
+                MASKS[shape.ordinal()][rotation.ordinal()] = new Mask(getOffSets(shape, rotation));
+            }
+        }
+    }
+
     public int x;
     public int y;
 
@@ -32,6 +42,16 @@ public class Tile {
         y = -1;
     }
 
+    /**
+     * Returns a copy of the tile at the same position.
+     */
+    public Tile copy() {
+        Tile copy = new Tile(letters.clone(), shape, rotation);
+        copy.x = x;
+        copy.y = y;
+        return copy;
+    }
+
     public static Tile create(char[] letters, Shape shape, Rotation rotation) {
         return new Tile(letters, shape, rotation);
     }
@@ -66,6 +86,11 @@ public class Tile {
         last_offest = new int[0];
     }
 
+    public void setRotation(Rotation rotation) {
+        this.rotation = rotation;
+        last_offest = getOffSets(shape, rotation);
+    }
+
     public static int[] getOffSets(Shape shape, Rotation rotation) {
         int id = rotation == Rotation.NONE ? 0 : rotation == Rotation.RIGHT ? 1 : rotation == Rotation.HALF ? 2 : 3;
 
@@ -88,6 +113,17 @@ public class Tile {
         return last_offest;
     }
 
+    /**
+     * Returns the bit mask of the shape with the rotation.
+     */
+    public static Mask getMask(Shape shape, Rotation rotation) {
+        return MASKS[shape.ordinal()][rotation.ordinal()];
+    }
+
+    public Mask getMask() {
+        return getMask(shape, rotation);
+    }
+
     public int getMaxYOffset() {
         int[] offsets = getOffSets();
         int maxYOffset = 0;
@@ -115,6 +151,44 @@ public class Tile {
         return false;
     }
 
+    /**
+     * Tiles of a shape with a rotation as bits, used with {@link BitBoard}.
+     * Each row of the tile is a long with the lowest bit being at x offset {@link #minX}.
+     * The first row is at y offset {@link #minY}.
+     * Each column of the tile is a long with the lowest bit being at y offset {@link #minY}.
+     * The first column is at x offset {@link #minX}.
+     */
+    public static class Mask {
+        public final int minX;
+        public final int minY;
+        public final int width;
+        public final long[] rows;
+        public final long[] columns;
+
+        public Mask(int[] offsets) {
+            int minX = offsets[0];
+            int minY = offsets[1];
+            int maxX = offsets[0];
+            int maxY = offsets[1];
+            for (int i = 2; i < 8; i += 2) {
+                minX = Math.min(minX, offsets[i]);
+                maxX = Math.max(maxX, offsets[i]);
+                minY = Math.min(minY, offsets[i + 1]);
+                maxY = Math.max(maxY, offsets[i + 1]);
+            }
+
+            this.minX = minX;
+            this.minY = minY;
+            width = maxX - minX + 1;
+            rows = new long[maxY - minY + 1];
+            columns = new long[width];
+            for (int i = 0; i < 8; i += 2) {
+                rows[offsets[i + 1] - minY] |= 1L << (offsets[i] - minX);
+                columns[offsets[i] - minX] |= 1L << (offsets[i + 1] - minY);
+            }
+        }
+    }
+
     public enum Shape {
         I, J, L, S, Z, T, O
     }
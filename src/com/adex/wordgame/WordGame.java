@@ -1,7 +1,17 @@
 package com.adex.wordgame;
 
-import java.util.Arrays;
+import com.adex.wordgame.replay.Action;
+import com.adex.wordgame.replay.ReplayRecorder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class WordGame {
 
@@ -11,6 +21,12 @@ public class WordGame {
     public static final int DEFAULT_GAME_WIDTH = 12;
     public static final int DEFAULT_GAME_HEIGHT = 10;
 
+    /**
+     * Bytes in a snapshot before the board
+     */
+    public static final int SNAPSHOT_HEADER_LENGTH = 32;
+    public static final byte SNAPSHOT_VERSION = 1;
+
     private final Random random;
     private final WordList wordList;
 
@@ -18,24 +34,256 @@ public class WordGame {
     private int height;
 
     private int score;
+    private boolean ended;
 
-    private char[][] tiles;
+    private Board board;
+    private BitBoard occupied; // kept in sync with board for collision checks and finding adjacent tiles
     private Tile tile;
 
-    private WordGame(Random random, WordList wordList, int width, int height) {
+    private char[] row; // reused when scoring rows of boards which don't store chars
+    private char[] column; // reused when scoring columns
+    private ScoreCache scoreCache; // null if scores are not cached
+    private ReplayRecorder recorder; // null if actions are not recorded
+
+    private WordGame(Random random, WordList wordList, Board board) {
         this.random = random;
         this.wordList = wordList;
-        this.height = height;
-        this.width = width;
+        this.board = board;
+        height = board.getHeight();
+        width = board.getWidth();
 
-        tiles = new char[height][width];
-        for (int y = 0; y < height; y++) {
-            Arrays.fill(tiles[y], 0, width, ' ');
-        }
+        occupied = BitBoard.of(board);
 
         score = 0;
 
         tile = null;
+        row = new char[width];
+        column = new char[height];
+    }
+
+    /**
+     * Copies the board of the game without the falling tile.
+     * Writes to the board of the game, see {@link #copy()}.
+     *
+     * @param random used for the tiles of the copy, must not be the random of the game
+     * @see Board#copy()
+     */
+    WordGame(WordGame game, Random random) {
+        this.random = random;
+        wordList = game.wordList;
+        width = game.width;
+        height = game.height;
+
+        board = game.board.copy();
+        occupied = new BitBoard(game.occupied);
+
+        score = game.score;
+        ended = game.ended;
+
+        tile = null;
+        row = new char[width];
+        column = new char[height];
+        scoreCache = game.scoreCache;
+    }
+
+    /**
+     * Copies the game, including the falling tile.
+     * Takes time proportional to width * height, as the occupied cells are copied.
+     * With a {@link CharBoard} rows of the board are shared until either game changes them, so the letters are not copied.
+     * <p>
+     * The letters, tile and score of this game don't change, but copying a {@link CharBoard} marks its rows as shared,
+     * so this must not be called at the same time as any other call on this game, including another copy.
+     * <p>
+     * The copy has its own copy of the random, so it gets the same tiles as this game would without changing the tiles of this game.
+     * Copying the random costs more than copying the board, so use {@link #copy(Random)} if the tiles don't need to match.
+     * The copy uses the same score cache as this game.
+     *
+     * @throws IllegalStateException if the random can't be copied, such as {@link ThreadLocalRandom}, see {@link #copy(Random)}
+     */
+    public WordGame copy() {
+        return copy(copyRandom(random));
+    }
+
+    /**
+     * Copies the game like {@link #copy()}, but the tiles of the copy are picked with the given random.
+     *
+     * @param random must not be the random of this game, as the copy would change the tiles of this game
+     */
+    public WordGame copy(Random random) {
+        WordGame copy = new WordGame(this, random);
+        if (tile != null) copy.tile = tile.copy();
+        return copy;
+    }
+
+    /**
+     * Returns a random which gives the same numbers as the given one would, without changing it.
+     * The state is copied by serializing the random, as {@link Random} doesn't expose it.
+     */
+    private static Random copyRandom(Random random) {
+        if (random instanceof ThreadLocalRandom) throw new IllegalStateException("ThreadLocalRandom can't be copied, use copy(Random)!");
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(random);
+            }
+
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (Random) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Random of the game can't be copied, use copy(Random)!", e);
+        }
+    }
+
+    /**
+     * Removes the letters on the board, the falling tile and the score, so the game can be played again.
+     * The random is not reset.
+     */
+    public void reset() {
+        board.clear();
+        occupied.clear();
+
+        score = 0;
+        ended = false;
+        tile = null;
+    }
+
+    /**
+     * Packs the state of the game into bytes.
+     * The random is not included.
+     * <p>
+     * The snapshot starts with {@link #SNAPSHOT_VERSION}, the width, height and score as ints, whether the game has ended,
+     * and the falling tile: whether there is one, its shape, rotation, x and y, and letters.
+     * The rest is the board from the bottom row up, each tile being one byte:
+     * 0 if empty and otherwise the letter - 'A' + 1.
+     */
+    public byte[] snapshot() {
+        ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_HEADER_LENGTH + width * height);
+        buffer.put(SNAPSHOT_VERSION).putInt(width).putInt(height).putInt(score).put((byte) (ended ? 1 : 0));
+
+        if (tile != null) {
+            buffer.put((byte) 1).put((byte) tile.shape.ordinal()).put((byte) tile.rotation.ordinal());
+            buffer.putInt(tile.x).putInt(tile.y);
+            for (char letter : tile.letters) buffer.put(getLetterCode(letter));
+        }
+
+        buffer.position(SNAPSHOT_HEADER_LENGTH);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                buffer.put(getLetterCode(board.get(x, y)));
+            }
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Sets the state of the game to the one in the snapshot.
+     * The game is not changed if the snapshot is invalid.
+     *
+     * @throws IllegalArgumentException if the snapshot is invalid or has letters the language of the game doesn't have
+     * @see #snapshot()
+     */
+    public void restore(byte[] snapshot) {
+        if (snapshot.length < SNAPSHOT_HEADER_LENGTH) throw new IllegalArgumentException("Snapshot is too short!");
+
+        ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+        byte version = buffer.get();
+        if (version != SNAPSHOT_VERSION) throw new IllegalArgumentException("Unsupported snapshot version " + version);
+
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Invalid size " + width + "x" + height);
+        if (snapshot.length != SNAPSHOT_HEADER_LENGTH + (long) width * height) {
+            throw new IllegalArgumentException("Snapshot of a " + width + "x" + height + " board can't be " + snapshot.length + " bytes!");
+        }
+
+        int score = buffer.getInt();
+        boolean ended = getFlag(buffer.get(), "ended");
+
+        Tile tile = null;
+        if (getFlag(buffer.get(), "tile")) {
+            int shapeIndex = buffer.get();
+            if (shapeIndex < 0 || shapeIndex >= Tile.Shape.values().length) throw new IllegalArgumentException("Invalid shape " + shapeIndex);
+            int rotationIndex = buffer.get();
+            if (rotationIndex < 0 || rotationIndex >= Tile.Rotation.values().length) {
+                throw new IllegalArgumentException("Invalid rotation " + rotationIndex);
+            }
+
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+
+            char[] letters = new char[4];
+            for (int i = 0; i < 4; i++) {
+                letters[i] = getLetter(buffer.get());
+                if (letters[i] == ' ') throw new IllegalArgumentException("Tile is missing a letter!");
+            }
+
+            tile = new Tile(letters, Tile.Shape.values()[shapeIndex], Tile.Rotation.values()[rotationIndex]);
+            tile.x = x;
+            tile.y = y;
+        }
+
+        BitBoard occupied = new BitBoard(width, height);
+        for (int i = SNAPSHOT_HEADER_LENGTH; i < snapshot.length; i++) {
+            if (getLetter(snapshot[i]) != ' ') occupied.set((i - SNAPSHOT_HEADER_LENGTH) % width, (i - SNAPSHOT_HEADER_LENGTH) / width);
+        }
+
+        if (tile != null) {
+            // Tiles spawn partly above the board, but never higher than the spawn position
+            Tile.Mask mask = tile.getMask();
+            long left = (long) tile.x + mask.minX;
+            long bottom = (long) tile.y + mask.minY;
+            if (left < 0 || left + mask.width > width || bottom < 0 || tile.y > height + 1) {
+                throw new IllegalArgumentException("Tile at " + tile.x + ", " + tile.y + " is outside the board!");
+            }
+            if (!occupied.fits(mask, tile.x, tile.y)) {
+                throw new IllegalArgumentException("Tile at " + tile.x + ", " + tile.y + " overlaps the board!");
+            }
+        }
+
+        this.score = score;
+        this.ended = ended;
+        this.tile = tile;
+
+        if (width != this.width || height != this.height) {
+            this.width = width;
+            this.height = height;
+            board = board.resize(width, height, 0);
+        }
+
+        buffer.position(SNAPSHOT_HEADER_LENGTH);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                board.set(x, y, getLetter(buffer.get()));
+            }
+        }
+
+        this.occupied = occupied;
+    }
+
+    private static byte getLetterCode(char letter) {
+        if (letter == ' ') return 0;
+
+        int code = letter - 'A' + 1;
+        if (code < 1 || code > 255) throw new IllegalArgumentException("Invalid letter '" + letter + "'");
+        return (byte) code;
+    }
+
+    /**
+     * Returns the letter of a code in a snapshot.
+     *
+     * @throws IllegalArgumentException if the language doesn't have the letter
+     */
+    private char getLetter(byte code) {
+        if ((code & 0xff) > wordList.getLetterCount()) throw new IllegalArgumentException("Invalid letter code " + (code & 0xff));
+        return code == 0 ? ' ' : (char) ((code & 0xff) + 'A' - 1);
+    }
+
+    private static boolean getFlag(byte value, String name) {
+        if (value != 0 && value != 1) throw new IllegalArgumentException("Invalid " + name + " flag " + value);
+        return value == 1;
     }
 
     public static WordGame create(Random random, WordList wordList) {
@@ -51,10 +299,20 @@ public class WordGame {
     }
 
     public static WordGame create(int width, int height, Random random, WordList wordList) {
-        return new WordGame(random, wordList, width, height);
+        return create(new CharBoard(width, height), random, wordList);
+    }
+
+    /**
+     * Creates a game on the board.
+     * A {@link PackedBoard} uses less memory, which helps when many games are kept in memory.
+     */
+    public static WordGame create(Board board, Random random, WordList wordList) {
+        return new WordGame(random, wordList, board);
     }
 
     public boolean tick() {
+        if (recorder != null) recorder.record(Action.TICK);
+
         if (tile == null) {
             createTile();
             return true;
@@ -100,10 +358,14 @@ public class WordGame {
     }
 
     public void end() {
-        System.out.println("Score: " + score);
+        ended = true;
     }
 
-    private void addTileToBoard() {
+    public boolean isEnded() {
+        return ended;
+    }
+
+    void addTileToBoard() {
         if (tile == null) return;
 
         int[] offsets = tile.getOffSets();
@@ -113,14 +375,15 @@ public class WordGame {
 
             if (y >= height) continue;
 
-            tiles[y][x] = tile.letters[i];
+            board.set(x, y, tile.letters[i]);
+            occupied.set(x, y);
         }
     }
 
     /**
      * Adds empty tiles to current position of the tile after they have temporarily been added.
      */
-    private void removeTileToBoard() {
+    void removeTileToBoard() {
         if (tile == null) return;
 
         int[] offsets = tile.getOffSets();
@@ -130,11 +393,13 @@ public class WordGame {
 
             if (y >= height) continue;
 
-            tiles[y][x] = ' ';
+            board.set(x, y, ' ');
+            occupied.clear(x, y);
         }
     }
 
     public boolean dropDownByOne() {
+        if (recorder != null) recorder.record(Action.DROP_DOWN_BY_ONE);
         if (tile == null) return true;
 
         if (canMoveDown()) {
@@ -146,6 +411,7 @@ public class WordGame {
     }
 
     public boolean dropDownFull() {
+        if (recorder != null) recorder.record(Action.DROP_DOWN_FULL);
         if (tile == null) return true;
 
         if (!canMoveDown()) {
@@ -156,83 +422,72 @@ public class WordGame {
         return true;
     }
 
-    public int calculateScore() {
-        if (tile == null) return 0;
+    /**
+     * Finds every resting position the tile can be moved to and the score of placing it there.
+     * The game is not modified.
+     */
+    public List<Placement> findPlacements() {
+        return findPlacements(false);
+    }
 
-        // Find min and max offsets of the tile
-        int minX = 0;
-        int minY = 0;
-        int maxX = 0;
-        int maxY = 0;
+    /**
+     * Finds every resting position the tile can be moved to and the score of placing it there.
+     * The game is not modified.
+     *
+     * @param parallel if true, the placements are scored on multiple threads
+     */
+    public List<Placement> findPlacements(boolean parallel) {
+        if (tile == null) return new ArrayList<>();
 
-        int[] offsets = tile.getOffSets();
-        for (int i = 0; i < 8; i += 2) {
-            int x = offsets[i];
-            int y = offsets[i + 1];
+        return PlacementSearch.find(this, tile, parallel);
+    }
 
-            if (x < minX) minX = x;
-            if (x > maxX) maxX = x;
-            if (y < minY) minY = y;
-            if (y > maxY) maxY = y;
-        }
+    /**
+     * Calculates the score of the tile after it has been added to the board.
+     * <p>
+     * The cells of the tile on each row and column are read from its mask,
+     * and adjacent tiles are found with bit scans on {@link #occupied}.
+     * Words can't be longer than {@link #MAX_WORD_LENGTH}, so at most {@link #MAX_WORD_LENGTH} - 1 adjacent tiles
+     * are needed on each side, which keeps the cost independent of the size of the board.
+     */
+    public int calculateScore() {
+        if (tile == null) return 0;
 
-        // Change offset to coordinate
-        minX += tile.x;
-        maxX += tile.x;
-        minY += tile.y;
-        maxY += tile.y;
+        Tile.Mask mask = tile.getMask();
+        int left = tile.x + mask.minX;
+        int bottom = tile.y + mask.minY;
 
         int score = 0;
 
         // calculate score of each column
-        for (int x = minX; x <= maxX; x++) {
+        for (int i = 0; i < mask.columns.length; i++) {
+            int x = left + i;
 
             // Find min and max of the tile in current column
-            int tileStart = maxY;
-            int tileEnd = minY;
-
-            for (int i = 0; i < 8; i += 2) {
-                int x2 = tile.x + offsets[i];
-                int y2 = tile.y + offsets[i + 1];
-
-                if (x2 != x) continue;
-
-                if (y2 < tileStart) tileStart = y2;
-                if (y2 > tileEnd) tileEnd = y2;
-            }
+            long bits = mask.columns[i];
+            int tileStart = bottom + Long.numberOfTrailingZeros(bits);
+            int tileEnd = bottom + 63 - Long.numberOfLeadingZeros(bits);
 
             // Find mix and max of adjacent tiles in the current column
-            int startY = tileStart;
-            while (startY > 0 && tiles[startY - 1][x] != ' ') startY--;
-            int endY = tileEnd;
-            while (endY < height - 1 && tiles[endY + 1][x] != ' ') endY++;
+            int startY = tileStart - occupied.countBelow(x, tileStart, MAX_WORD_LENGTH - 1);
+            int endY = tileEnd + occupied.countAbove(x, tileEnd, MAX_WORD_LENGTH - 1);
 
             // Add score
             score += calculateColumnScore(x, startY, endY, tileStart, tileEnd);
         }
 
         // calculate score of each row
-        for (int y = minY; y <= maxY; y++) {
+        for (int i = 0; i < mask.rows.length; i++) {
+            int y = bottom + i;
 
             // Find min and max of the tile in current row
-            int tileStart = maxX;
-            int tileEnd = minX;
+            long bits = mask.rows[i];
+            int tileStart = left + Long.numberOfTrailingZeros(bits);
+            int tileEnd = left + 63 - Long.numberOfLeadingZeros(bits);
 
-            for (int i = 0; i < 8; i += 2) {
-                int x2 = tile.x + offsets[i];
-                int y2 = tile.y + offsets[i + 1];
-
-                if (y2 != y) continue;
-
-                if (x2 < tileStart) tileStart = x2;
-                if (x2 > tileEnd) tileEnd = x2;
-            }
-
-            // Find mix and max of adjacent tiles in the current column
-            int startX = tileStart;
-            while (startX > 0 && tiles[y][startX - 1] != ' ') startX--;
-            int endX = tileEnd;
-            while (endX < width - 1 && tiles[y][endX + 1] != ' ') endX++;
+            // Find mix and max of adjacent tiles in the current row
+            int startX = tileStart - occupied.countLeft(tileStart, y, MAX_WORD_LENGTH - 1);
+            int endX = tileEnd + occupied.countRight(tileEnd, y, MAX_WORD_LENGTH - 1);
 
             // Add score
             score += calculateRowScore(y, startX, endX, tileStart, tileEnd);
@@ -243,9 +498,9 @@ public class WordGame {
 
     /**
      * Calculates the score the tile gets on the row.
-     * Letters must be added to {@link this.tiles} beforehand.
+     * Letters must be added to the board beforehand.
      * Words must be from left to right.
-     * Loops trough each possible word position to check the score.
+     * Rows of a {@link CharBoard} are scored in place without copying them.
      * <p>
      * O(n^2)
      *
@@ -257,38 +512,25 @@ public class WordGame {
      * @return score of the row
      */
     public int calculateRowScore(int y, int startX, int endX, int tileStart, int tileEnd) {
-        int score = 0;
-
         // First index where a valid word can start
         int firstPossibleWordStart = Math.max(startX, tileStart - MAX_WORD_LENGTH + 1);
         // Last index where a valid word can start
         int lastPossibleStart = Math.min(tileEnd, endX - MIN_WORD_LENGTH + 1);
 
-        for (int start = firstPossibleWordStart; start <= lastPossibleStart; start++) {
-            String word = "";
-
-            // Index at which the words contain a letter from the current tile and is long enough
-            int firstPossibleStart = Math.max(tileStart, start + MIN_WORD_LENGTH - 1);
-            for (int i = start; i < firstPossibleStart; i++) {
-                word += tiles[y][i];
-            }
+        // Last index a word can reach
+        int lastPossibleEnd = Math.min(endX, lastPossibleStart + MAX_WORD_LENGTH - 1);
 
-            // Last index where a valid word can reach
-            int lastPossibleEnd = Math.min(endX, start + MAX_WORD_LENGTH - 1);
-            for (int end = firstPossibleStart; end <= lastPossibleEnd; end++) {
-                word += tiles[y][end];
-                score += wordList.getScore(word);
-            }
-        }
+        if (row.length < width) row = new char[width];
+        char[] line = board.getRow(y, firstPossibleWordStart, lastPossibleEnd, row);
 
-        return score;
+        return getLineScore(line, firstPossibleWordStart, lastPossibleStart, tileStart, endX);
     }
 
     /**
      * Calculates the score the tile gets on the column.
-     * Letters must be added to {@link this.tiles} beforehand.
+     * Letters must be added to the board beforehand.
      * Words must be from up to down.
-     * Loops trough each possible word position to check the score.
+     * The column is copied from top to bottom into a reused buffer, so it can be scored like a row.
      * <p>
      * O(n^2)
      *
@@ -300,45 +542,135 @@ public class WordGame {
      * @return score of the row
      */
     public int calculateColumnScore(int x, int startY, int endY, int tileStart, int tileEnd) {
-        int score = 0;
+        // Indexes on the buffer are distances from endY
 
         // First index where a valid word can start
-        int firstPossibleWordStart = Math.min(endY, tileEnd + MAX_WORD_LENGTH - 1);
+        int firstPossibleWordStart = Math.max(0, endY - tileEnd - MAX_WORD_LENGTH + 1);
         // Last index where a valid word can start
-        int lastPossibleStart = Math.max(tileStart, startY + MIN_WORD_LENGTH - 1);
+        int lastPossibleStart = Math.min(endY - tileStart, endY - startY - MIN_WORD_LENGTH + 1);
+        // Last index a word can reach
+        int lastPossibleEnd = Math.min(endY - startY, lastPossibleStart + MAX_WORD_LENGTH - 1);
 
-        for (int start = firstPossibleWordStart; start >= lastPossibleStart; start--) {
-            String word = "";
+        if (column.length < height) column = new char[height];
+        for (int i = firstPossibleWordStart; i <= lastPossibleEnd; i++) {
+            column[i] = board.get(x, endY - i);
+        }
 
-            // Index at which the words contain a letter from the current tile and is long enough
-            int firstPossibleStart = Math.min(tileStart, start - MIN_WORD_LENGTH + 1);
-            for (int i = start; i > firstPossibleStart; i--) {
-                word += tiles[i][x];
-            }
+        return getLineScore(column, firstPossibleWordStart, lastPossibleStart, endY - tileStart, endY - startY);
+    }
 
+    /**
+     * Returns the score of the words on a line of letters from the score cache, calculating it if it's not cached.
+     * <p>
+     * Only the letters from firstStart to the last index a word can reach affect the score.
+     * The key consists of them, 12 letters of 5 bits in each long,
+     * and the offsets of lastStart and minEnd from firstStart in the highest 4 bits.
+     * Lines which don't fit in a key are not cached.
+     *
+     * @see #calculateLineScore(char[], int, int, int, int)
+     */
+    private int getLineScore(char[] line, int firstStart, int lastStart, int minEnd, int lastEnd) {
+        if (scoreCache == null || firstStart > lastStart) {
+            return calculateLineScore(line, firstStart, lastStart, minEnd, lastEnd);
+        }
+
+        int end = Math.min(lastEnd, lastStart + MAX_WORD_LENGTH - 1);
+        if (end - firstStart >= 24 || lastStart - firstStart > 15 || minEnd < firstStart || minEnd - firstStart > 15) {
+            return calculateLineScore(line, firstStart, lastStart, minEnd, lastEnd);
+        }
+
+        long firstKey = (long) (lastStart - firstStart) << 60;
+        long secondKey = (long) (minEnd - firstStart) << 60;
+        for (int i = firstStart; i <= end; i++) {
+            int letter = line[i] - 'A' + 1;
+            if (letter < 1 || letter > 31) return calculateLineScore(line, firstStart, lastStart, minEnd, lastEnd);
+
+            int index = i - firstStart;
+            if (index < 12) firstKey |= (long) letter << (5 * index);
+            else secondKey |= (long) letter << (5 * (index - 12));
+        }
+
+        int score = scoreCache.get(firstKey, secondKey);
+        if (score < 0) {
+            score = calculateLineScore(line, firstStart, lastStart, minEnd, lastEnd);
+            scoreCache.put(firstKey, secondKey, score);
+        }
+
+        return score;
+    }
+
+    /**
+     * Calculates the score of the words on a line of letters.
+     * Words are read from left to right and must be between {@link #MIN_WORD_LENGTH} and {@link #MAX_WORD_LENGTH} letters long.
+     * Walks the word trie from each possible word start and stops when no word begins with the letters.
+     * Letter scores are multiplied while walking, so nothing is allocated.
+     *
+     * @param line       letters of the line
+     * @param firstStart first index a word can start from
+     * @param lastStart  last index a word can start from
+     * @param minEnd     words must reach at least this index
+     * @param lastEnd    words can't continue past this index
+     * @return score of the line
+     */
+    private int calculateLineScore(char[] line, int firstStart, int lastStart, int minEnd, int lastEnd) {
+        WordTrie trie = wordList.getTrie();
+        int score = 0;
+
+        for (int start = firstStart; start <= lastStart; start++) {
+            // Index at which the words contain a letter from the current tile and is long enough
+            int firstPossibleEnd = Math.max(minEnd, start + MIN_WORD_LENGTH - 1);
             // Last index where a valid word can reach
-            int lastPossibleEnd = Math.max(startY, start - MAX_WORD_LENGTH + 1);
-            for (int end = firstPossibleStart; end >= lastPossibleEnd; end--) {
-                word += tiles[end][x];
-                score += wordList.getScore(word);
+            int lastPossibleEnd = Math.min(lastEnd, start + MAX_WORD_LENGTH - 1);
+
+            int node = WordTrie.ROOT;
+            int wordScore = 1;
+            for (int end = start; end <= lastPossibleEnd; end++) {
+                node = trie.next(node, line[end]);
+                if (node == WordTrie.NONE) break; // no word starts with the letters
+
+                wordScore *= wordList.getLetterScore(line[end]);
+                if (end >= firstPossibleEnd && trie.isWord(node)) score += wordScore;
             }
         }
 
         return score;
     }
 
-    public boolean canMoveDown() {
-        int[] coords = tile.getOffSets();
-        for (int i = 0; i < 8; i += 2) {
-            int x = tile.x + coords[i];
-            int y = tile.y + coords[i + 1];
+    /**
+     * Sets the cache used for scoring rows and columns.
+     * Copies of the game made for trying placements share the cache.
+     *
+     * @param scoreCache cache for the same language as the game, null to not cache scores
+     */
+    public void setScoreCache(ScoreCache scoreCache) {
+        if (scoreCache != null && scoreCache.getWordList() != wordList) {
+            throw new IllegalArgumentException("Score cache is for a different language!");
+        }
 
-            if (y > height) continue;
+        this.scoreCache = scoreCache;
+    }
 
-            if (y < 1 || tiles[y - 1][x] != ' ') return false;
-        }
+    public ScoreCache getScoreCache() {
+        return scoreCache;
+    }
 
-        return true;
+    /**
+     * Sets the recorder the actions of the game are passed to.
+     * Only the actions in {@link Action} are recorded, so a recorded game must not be changed in other ways.
+     * Copies of the game are not recorded.
+     *
+     * @param recorder recorder of this game, null to stop recording
+     */
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public ReplayRecorder getRecorder() {
+        return recorder;
+    }
+
+    public boolean canMoveDown() {
+        return occupied.fits(tile.getMask(), tile.x, tile.y - 1);
     }
 
     /**
@@ -346,6 +678,7 @@ public class WordGame {
      * Checks if the tile can move and if not, does nothing
      */
     public void moveLeft() {
+        if (recorder != null) recorder.record(Action.MOVE_LEFT);
         if (canMoveLeft()) tile.x--;
     }
 
@@ -355,18 +688,7 @@ public class WordGame {
     public boolean canMoveLeft() {
         if (tile == null) return false;
 
-        int[] offsets = tile.getOffSets();
-        for (int i = 0; i < 8; i += 2) {
-            int x = tile.x + offsets[i] - 1;
-            int y = tile.y + offsets[i + 1];
-
-            if (x < 0) return false; // already at left border
-            if (y >= height) continue; // not yet in board
-
-            if (tiles[y][x] != ' ') return false; // tile occupied
-        }
-
-        return true;
+        return occupied.fits(tile.getMask(), tile.x - 1, tile.y);
     }
 
     /**
@@ -374,6 +696,7 @@ public class WordGame {
      * Checks if the tile can move and if not, does nothing
      */
     public void moveRight() {
+        if (recorder != null) recorder.record(Action.MOVE_RIGHT);
         if (canMoveRight()) tile.x++;
     }
 
@@ -383,60 +706,29 @@ public class WordGame {
     public boolean canMoveRight() {
         if (tile == null) return false;
 
-        int[] offsets = tile.getOffSets();
-        for (int i = 0; i < 8; i += 2) {
-            int x = tile.x + offsets[i] + 1;
-            int y = tile.y + offsets[i + 1];
-
-            if (x >= width) return false; // already at right border
-            if (y >= height) continue; // not yet in board
-
-            if (tiles[y][x] != ' ') return false; // tile occupied
-        }
-
-        return true;
+        return occupied.fits(tile.getMask(), tile.x + 1, tile.y);
     }
 
     public void rotateClockwise() {
+        if (recorder != null) recorder.record(Action.ROTATE_CLOCKWISE);
         if (canMoveClockwise()) tile.rotateClockwise();
     }
 
     public boolean canMoveClockwise() {
         if (tile == null) return false;
 
-        int[] offsets = Tile.getOffSets(tile.shape, tile.getClockwiseRotation());
-        for (int i = 0; i < 8; i += 2) {
-            int x = tile.x + offsets[i];
-            int y = tile.y + offsets[i + 1];
-
-            if (x >= width || x < 0 || y < 0) return false; // outside board
-            if (y >= height) continue; // not in board
-
-            if (tiles[y][x] != ' ') return false; // tile occupied
-        }
-
-        return true;
+        return occupied.fits(Tile.getMask(tile.shape, tile.getClockwiseRotation()), tile.x, tile.y);
     }
 
     public void rotateCounterClockwise() {
+        if (recorder != null) recorder.record(Action.ROTATE_COUNTER_CLOCKWISE);
         if (canMoveCounterClockwise()) tile.rotateCounterClockwise();
     }
 
     public boolean canMoveCounterClockwise() {
         if (tile == null) return false;
 
-        int[] offsets = Tile.getOffSets(tile.shape, tile.getCounterClockwiseRotation());
-        for (int i = 0; i < 8; i += 2) {
-            int x = tile.x + offsets[i];
-            int y = tile.y + offsets[i + 1];
-
-            if (x >= width || x < 0 || y < 0) return false; // outside board
-            if (y >= height) continue; // not in board
-
-            if (tiles[y][x] != ' ') return false; // tile occupied
-        }
-
-        return true;
+        return occupied.fits(Tile.getMask(tile.shape, tile.getCounterClockwiseRotation()), tile.x, tile.y);
     }
 
     public int getWidth() {
@@ -444,42 +736,20 @@ public class WordGame {
     }
 
     public void increaseWidth(int increase) {
-        char[][] newBoard = new char[height][];
-        for (int y = 0; y < height; y++) {
-            System.arraycopy(tiles[y], 0, newBoard[y], increase / 2, width);
-            Arrays.fill(newBoard[y], 0, increase / 2, ' ');
-            Arrays.fill(newBoard[y], width + increase / 2, width + increase, ' ');
-        }
-
-        tile.x += increase / 2;
+        if (tile != null) tile.x += increase / 2;
         width += increase;
-        tiles = newBoard;
+        board = board.resize(width, height, increase / 2);
+        occupied = BitBoard.of(board);
     }
 
     public void increaseWidthBy2() {
-        char[][] newBoard = new char[height][];
-        for (int y = 0; y < height; y++) {
-            System.arraycopy(tiles[y], 0, newBoard[y], 1, width);
-            newBoard[y][0] = ' ';
-            newBoard[y][width + 1] = ' ';
-        }
-
-        tile.x++;
-        width += 2;
-        tiles = newBoard;
+        increaseWidth(2);
     }
 
     public void increaseHeight(int increase) {
-        char[][] newBoard = new char[height + increase][width];
-
-        System.arraycopy(tiles, 0, newBoard, 0, height);
-
-        for (int y = height; y < height + increase; y++) {
-            Arrays.fill(newBoard[y], 0, width, ' ');
-        }
-
         height += increase;
-        tiles = newBoard;
+        board = board.resize(width, height, 0);
+        occupied = BitBoard.of(board);
     }
 
     public int getHeight() {
@@ -490,11 +760,40 @@ public class WordGame {
         return score;
     }
 
+    /**
+     * Returns the letter on the board or ' ' if the tile is empty.
+     * Letters of the falling tile are not included.
+     */
+    public char getLetter(int x, int y) {
+        return board.get(x, y);
+    }
+
+    /**
+     * Returns the falling tile or null if there is none.
+     */
+    public Tile getTile() {
+        return tile;
+    }
+
+    /**
+     * Copies the row as it's shown into the array, including the letters of the falling tile.
+     * The board is not modified, so this can be called while the game is read elsewhere.
+     */
+    public void getDisplayedRow(int y, char[] row) {
+        char[] letters = board.getRow(y, 0, width - 1, row);
+        if (letters != row) System.arraycopy(letters, 0, row, 0, width);
+        if (tile == null) return;
+
+        int[] offsets = tile.getOffSets();
+        for (int i = 0; i < 4; i++) {
+            if (tile.y + offsets[2 * i + 1] == y) row[tile.x + offsets[2 * i]] = tile.letters[i];
+        }
+    }
+
     @Override
     public String toString() {
-        addTileToBoard(); // Adding tiles temporarily to the board for quicker formatting
-
         StringBuilder sb = new StringBuilder();
+        char[] row = new char[width];
         boolean newLine = false;
 
         for (int y = height - 1; y >= 0; y--) {
@@ -503,16 +802,12 @@ public class WordGame {
             }
             newLine = true;
 
-            sb.append('|');
-            for (char c : tiles[y]) {
-                sb.append(c);
-            }
-            sb.append('|');
+            getDisplayedRow(y, row);
+            sb.append('|').append(row).append('|');
         }
 
         sb.append('\n').append((char) 0).append("—".repeat(width)).append((char) 0);
 
-        removeTileToBoard();
         return sb.toString();
     }
 }
@@ -1,91 +1,444 @@
 package com.adex.wordgame;
 
+import com.adex.wordgame.file.CompiledLanguage;
 import com.adex.wordgame.file.DataReader;
 import com.adex.wordgame.util.Pair;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Words and letter data of a language.
+ * Word lists can't be modified after loading, so one instance of each language is shared by every game, see {@link #get(Language)}.
+ * <p>
+ * If the language isn't compiled, only the letter data is read when creating the word list,
+ * and the words are decoded on another thread. Letters can be picked right away,
+ * and checking words waits until they are decoded, see {@link #getWordsLoaded()}.
+ */
 public class WordList {
 
+    private static final ConcurrentHashMap<Language, WordList> loaded = new ConcurrentHashMap<>();
+
+    /**
+     * Decodes words on a new daemon thread, so waiting for them never blocks a thread of a pool decoding them
+     */
+    private static final Executor WORD_LOADER = runnable -> {
+        Thread thread = new Thread(runnable, "WordList loader");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
     private int letterCount;
 
-    private HashSet<String> words;
+    private volatile WordTrie words; // null until loaded
+    private volatile WordSet wordSet; // same words as the trie for checking whole words, created on first use
+    private volatile boolean wordsTooLong; // the words can't be packed into a word set, so the trie is used
+    private final CompletableFuture<Void> wordsLoaded;
+    private volatile BloomFilter bloomFilter; // null if whole words are checked from the set only
     private int[] scores;
     private int[] frequencies;
     private int frequenciesSum;
 
-    private Language language;
+    // Alias table for picking letters, see createAliasTable
+    private int[] aliasThresholds;
+    private char[] aliasLetters;
 
-    public WordList(Language language) {
-        setLanguage(language);
-    }
+    private final Language language;
 
-    public void setLanguage(Language language) {
+    private volatile long lastUsed; // System.nanoTime of the last get call
+
+    /**
+     * Loads a new instance of the language.
+     * Use {@link #get(Language)} to share the loaded instance instead.
+     *
+     * @throws IllegalStateException if the letter data can't be loaded
+     */
+    public WordList(Language language) {
         this.language = language;
-        loadWords();
+        wordsLoaded = loadWords();
     }
 
-    private void loadWords() {
+    /**
+     * Loads the letter data and starts loading the words.
+     *
+     * @return future completed when the words are loaded
+     */
+    private CompletableFuture<Void> loadWords() {
         try {
-            Pair<ArrayList<Pair<Integer, Integer>>, String[]> result = DataReader.getLanguageWords(language.path);
-            String[] words = result.second;
-            this.words = new HashSet<>(words.length, 1);
-            this.words.addAll(Arrays.asList(words));
-
-            letterCount = result.first.size();
-            scores = new int[letterCount];
-            frequencies = new int[letterCount];
+            boolean compiled = DataReader.hasCompiledLanguage(language.path) && loadCompiledWords();
+            if (!compiled) loadLetters();
 
             frequenciesSum = 0;
-            ArrayList<Pair<Integer, Integer>> data = result.first;
-            int frequency;
-            for (int i = 0; i < letterCount; i++) {
-                scores[i] = data.get(i).first;
-                frequency = data.get(i).second;
-                frequencies[i] = frequency;
-                frequenciesSum += frequency;
-            }
+            for (int frequency : frequencies) frequenciesSum += frequency;
+
+            createAliasTable();
 
+            if (compiled) return CompletableFuture.completedFuture(null);
         } catch (Exception e) {
-            System.out.println("Failed to load language: " + language.name + ":\n" + e.getMessage() + "\n"
-                    + Arrays.toString(e.getStackTrace()));
+            printLoadError(e);
+            throw new IllegalStateException("Failed to load language " + language.name, e);
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                loadEncodedWords();
+            } catch (Exception e) {
+                printLoadError(e);
+                loaded.remove(language, this); // loaded again on the next get call
+                throw new IllegalStateException("Failed to load words of " + language.name, e);
+            }
+        }, WORD_LOADER);
+    }
+
+    private void printLoadError(Exception e) {
+        System.out.println("Failed to load language: " + language.name + ":\n" + e.getMessage() + "\n"
+                + Arrays.toString(e.getStackTrace()));
+    }
+
+    /**
+     * Maps the compiled language file, so the words don't need to be decoded.
+     *
+     * @return false if the compiled language can't be used, in which case the encoded language is loaded instead
+     */
+    private boolean loadCompiledWords() throws IOException {
+        CompiledLanguage compiled;
+        try {
+            compiled = DataReader.getCompiledLanguage(language.path);
+            if (DataReader.isOutdated(compiled, language.path)) {
+                System.out.println("Compiled language " + language.name + " is outdated, loading the encoded language instead.");
+                return false;
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Can't use compiled language " + language.name + ", loading the encoded language instead:\n" + e.getMessage());
+            return false;
+        }
+
+        letterCount = compiled.scores.length;
+        scores = compiled.scores;
+        frequencies = compiled.frequencies;
+        words = compiled.trie;
+        return true;
+    }
+
+    /**
+     * Reads the letter data from the header of the encoded language.
+     */
+    private void loadLetters() throws IOException {
+        ArrayList<Pair<Integer, Integer>> data = DataReader.getLanguageLetters(language.path);
+        letterCount = data.size();
+
+        scores = new int[letterCount];
+        frequencies = new int[letterCount];
+        for (int i = 0; i < letterCount; i++) {
+            scores[i] = data.get(i).first;
+            frequencies[i] = data.get(i).second;
+        }
+    }
+
+    /**
+     * Decodes the words of the encoded language.
+     */
+    private void loadEncodedWords() throws IOException {
+        Pair<ArrayList<Pair<Integer, Integer>>, String[]> result = DataReader.getLanguageWords(language.path);
+        words = new WordTrie(result.second, letterCount);
+    }
+
+    /**
+     * Returns a future completed when the words have been loaded.
+     * Completed exceptionally if loading them failed.
+     */
+    public CompletableFuture<Void> getWordsLoaded() {
+        return wordsLoaded;
+    }
+
+    public boolean areWordsLoaded() {
+        return words != null;
+    }
+
+    /**
+     * Waits until the words are loaded.
+     *
+     * @throws java.util.concurrent.CompletionException if loading the words failed
+     */
+    private void awaitWords() {
+        wordsLoaded.join();
+    }
+
+    /**
+     * Creates a table for picking a random letter in constant time (alias method).
+     * <p>
+     * Each letter has a column with space for {@link #frequenciesSum} units, and frequencies are multiplied by letter count,
+     * so all units fit in the columns.
+     * Each column is filled with units of its own letter up to the threshold and the rest with units of another letter.
+     * The thresholds are integers, so the probabilities are exactly the same as picking a unit from the frequencies.
+     */
+    private void createAliasTable() {
+        aliasThresholds = new int[letterCount];
+        aliasLetters = new char[letterCount];
+
+        int[] units = new int[letterCount];
+        int[] small = new int[letterCount];
+        int[] large = new int[letterCount];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < letterCount; i++) {
+            units[i] = frequencies[i] * letterCount;
+            if (units[i] < frequenciesSum) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+
+        // Filling columns with fewer units than there's space with units of a letter with more units
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            aliasThresholds[less] = units[less];
+            aliasLetters[less] = (char) ('A' + more);
+
+            units[more] -= frequenciesSum - units[less];
+            if (units[more] < frequenciesSum) small[smallCount++] = more;
+            else large[largeCount++] = more;
+        }
+
+        // The rest have exactly the space of units
+        while (largeCount > 0) {
+            int letter = large[--largeCount];
+            aliasThresholds[letter] = frequenciesSum;
+            aliasLetters[letter] = (char) ('A' + letter);
+        }
+        while (smallCount > 0) {
+            int letter = small[--smallCount];
+            aliasThresholds[letter] = frequenciesSum;
+            aliasLetters[letter] = (char) ('A' + letter);
         }
     }
 
     public static WordList defaultLanguage() {
-        return new WordList(Language.ENGLISH);
+        return get(Language.ENGLISH);
     }
 
+    /**
+     * Returns the shared word list of the language.
+     * The language is loaded on the first call and the other threads requesting it wait until it's loaded.
+     * If loading fails, nothing is shared and the next call tries again.
+     *
+     * @throws IllegalStateException if the letter data can't be loaded
+     */
     public static WordList get(Language language) {
-        return new WordList(language);
+        WordList wordList = loaded.computeIfAbsent(language, WordList::new);
+        wordList.lastUsed = System.nanoTime();
+        return wordList;
+    }
+
+    public static boolean isLoaded(Language language) {
+        return loaded.containsKey(language);
+    }
+
+    /**
+     * Removes the shared word list of the language, so it's loaded again on next {@link #get(Language)} call.
+     * Games already using it keep their instance.
+     *
+     * @return true if the language was loaded
+     */
+    public static boolean unload(Language language) {
+        return loaded.remove(language) != null;
+    }
+
+    /**
+     * Unloads each language which hasn't been requested with {@link #get(Language)} during the given time.
+     *
+     * @return amount of unloaded languages
+     */
+    public static int unloadUnused(long maxIdleTime, TimeUnit unit) {
+        long now = System.nanoTime();
+        long maxIdle = unit.toNanos(maxIdleTime);
+
+        int unloaded = 0;
+        for (WordList wordList : loaded.values()) {
+            if (now - wordList.lastUsed > maxIdle && loaded.remove(wordList.language, wordList)) unloaded++;
+        }
+
+        return unloaded;
+    }
+
+    public Language getLanguage() {
+        return language;
+    }
+
+    public int getLetterCount() {
+        return letterCount;
     }
 
     public char[] get4Letters(Random r) {
-        return new char[]{getLetter(r), getLetter(r), getLetter(r), getLetter(r)};
+        char[] letters = new char[4];
+        fillLetters(r, letters, 0, 4);
+        return letters;
     }
 
+    /**
+     * Returns a random letter weighted by the letter frequencies.
+     * O(1)
+     */
     public char getLetter(Random random) {
-        int x = random.nextInt(frequenciesSum);
-        for (int i = 0; i < letterCount; i++) {
-            x -= frequencies[i];
-            if (x < 0) return (char) (i + 'A');
-        }
+        int x = random.nextInt(letterCount * frequenciesSum);
+        int column = x / frequenciesSum;
 
-        return (char) ('A' + letterCount - 1);
+        return x - column * frequenciesSum < aliasThresholds[column] ? (char) ('A' + column) : aliasLetters[column];
+    }
+
+    /**
+     * Fills the array from index {@code from} (inclusive) to {@code to} (exclusive) with random letters.
+     */
+    public void fillLetters(Random random, char[] letters, int from, int to) {
+        int bound = letterCount * frequenciesSum;
+        for (int i = from; i < to; i++) {
+            int x = random.nextInt(bound);
+            int column = x / frequenciesSum;
+
+            letters[i] = x - column * frequenciesSum < aliasThresholds[column] ? (char) ('A' + column) : aliasLetters[column];
+        }
     }
 
     public int getScore(String word) {
         return isWord(word) ? getWordScore(word) : 0;
     }
 
+    /**
+     * Returns the score of the letters from index {@code from} (inclusive) to {@code to} (exclusive)
+     * or 0 if they don't form a word.
+     */
+    public int getScore(char[] letters, int from, int to) {
+        return isWord(letters, from, to) ? getWordScore(letters, from, to) : 0;
+    }
+
     public boolean isWord(String word) {
-        return words.contains(word);
+        if (findWordSet() == null) return getTrie().contains(word);
+        return isWord(WordSet.getKey(word));
+    }
+
+    public boolean isWord(char[] letters, int from, int to) {
+        if (findWordSet() == null) return getTrie().contains(letters, from, to);
+        return isWord(WordSet.getKey(letters, from, to));
+    }
+
+    /**
+     * Checks if the key built with {@link WordSet#append(long, char)} is a word.
+     * If there is a Bloom filter, it's checked first.
+     */
+    public boolean isWord(long key) {
+        if (key <= 0) return false;
+
+        BloomFilter filter = bloomFilter;
+        if (filter != null && !filter.mightContain(key)) return false;
+
+        WordSet set = findWordSet();
+        if (set != null) return set.containsKey(key);
+
+        // Walking the trie from the first letter, which has the highest bits
+        WordTrie trie = getTrie();
+        int node = WordTrie.ROOT;
+        for (int shift = (63 - Long.numberOfLeadingZeros(key)) / WordSet.BITS_PER_LETTER * WordSet.BITS_PER_LETTER;
+             shift >= 0 && node != WordTrie.NONE; shift -= WordSet.BITS_PER_LETTER) {
+            int code = (int) (key >>> shift) & ((1 << WordSet.BITS_PER_LETTER) - 1);
+            node = trie.next(node, (char) ('A' + code - 1));
+        }
+
+        return node != WordTrie.NONE && trie.isWord(node);
+    }
+
+    /**
+     * Builds a Bloom filter of the words, which is checked before the word set.
+     * Most strings which are not words are then rejected with a single array read.
+     * Doesn't affect scoring lines, as it walks the trie, which already stops when no word starts with the letters.
+     *
+     * @param falsePositiveRate probability of a string which is not a word passing the filter, between 0 and 1
+     * @param countLookups      whether the filter counts passed and rejected lookups
+     */
+    public void enableBloomFilter(double falsePositiveRate, boolean countLookups) {
+        bloomFilter = new BloomFilter(getWordSet(), falsePositiveRate, countLookups);
+    }
+
+    public void disableBloomFilter() {
+        bloomFilter = null;
+    }
+
+    /**
+     * Returns the Bloom filter checked before the word set or null if there is none.
+     * Its counters show how many lookups it rejected.
+     */
+    public BloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+
+    /**
+     * Returns the set containing the words.
+     * Faster than the trie for checking whole words, but prefixes can't be checked.
+     * The set is created on the first call, waiting until the words are loaded.
+     *
+     * @throws IllegalStateException if the language has words longer than {@link WordSet#MAX_LENGTH}
+     */
+    public WordSet getWordSet() {
+        WordSet set = findWordSet();
+        if (set == null) {
+            throw new IllegalStateException(language.name + " has words longer than " + WordSet.MAX_LENGTH + " letters!");
+        }
+
+        return set;
+    }
+
+    /**
+     * Returns the word set, creating it if this is the first call,
+     * or null if the words are too long for it.
+     */
+    private WordSet findWordSet() {
+        WordSet set = wordSet;
+        if (set != null || wordsTooLong) return set;
+
+        WordTrie trie = getTrie();
+        synchronized (this) {
+            if (wordSet == null && !wordsTooLong) {
+                try {
+                    wordSet = new WordSet(trie);
+                } catch (IllegalArgumentException e) {
+                    wordsTooLong = true;
+                }
+            }
+
+            return wordSet;
+        }
+    }
+
+    /**
+     * Returns the trie containing the words.
+     * Can be used for checking words one letter at a time.
+     * Waits until the words are loaded.
+     */
+    public WordTrie getTrie() {
+        WordTrie trie = words;
+        if (trie != null) return trie;
+
+        awaitWords();
+        return words;
     }
 
     public int getWordScore(String word) {
         int score = 1;
-        for (int c : word.chars().toArray()) {
-            score *= getLetterScore((char) c);
+        for (int i = 0; i < word.length(); i++) {
+            score *= getLetterScore(word.charAt(i));
+        }
+
+        return score;
+    }
+
+    public int getWordScore(char[] letters, int from, int to) {
+        int score = 1;
+        for (int i = from; i < to; i++) {
+            score *= getLetterScore(letters[i]);
         }
 
         return score;
@@ -0,0 +1,160 @@
+package com.adex.wordgame;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Open addressing hash set of words packed into longs.
+ * <p>
+ * A key has {@link #BITS_PER_LETTER} bits for each letter, the letter - 'A' + 1, the last letter being the lowest bits.
+ * Letters are never 0, so words of different lengths have different keys and 0 marks an empty slot.
+ * Keys can be built one letter at a time with {@link #append(long, char)} while scanning a row or column.
+ * <p>
+ * Checking a word takes a hash and usually one or two array reads, and nothing is allocated.
+ */
+public class WordSet {
+
+    public static final int BITS_PER_LETTER = 5;
+    public static final int MAX_LENGTH = 64 / BITS_PER_LETTER;
+
+    /**
+     * Returned by {@link #append(long, char)} and {@link #getKey(char[], int, int)} if the letters can't form a key
+     */
+    public static final long INVALID_KEY = -1;
+
+    private static final int MAX_CODE = (1 << BITS_PER_LETTER) - 1;
+
+    private final long[] keys;
+    private final int mask;
+    private final int shift;
+    private final int size;
+
+    /**
+     * Adds every word of the trie to a new set.
+     *
+     * @throws IllegalArgumentException if the trie has words longer than {@link #MAX_LENGTH}
+     */
+    public WordSet(WordTrie trie) {
+        int capacity = Integer.highestOneBit(Math.max(2, trie.getWordCount()) * 2 - 1) * 2; // at most half full
+        keys = new long[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+
+        size = addWords(trie, WordTrie.ROOT, 0, 0);
+    }
+
+    private int addWords(WordTrie trie, int node, long key, int length) {
+        int added = 0;
+        if (length > 0 && trie.isWord(node) && add(key)) added++;
+
+        for (int code = 1; code <= WordTrie.MAX_LETTER_COUNT; code++) {
+            int child = trie.next(node, (char) ('A' + code - 1));
+            if (child == WordTrie.NONE) continue;
+
+            // Nodes only exist on the way to words
+            if (length == MAX_LENGTH) throw new IllegalArgumentException("Words longer than " + MAX_LENGTH + " letters can't be packed!");
+            added += addWords(trie, child, (key << BITS_PER_LETTER) | code, length + 1);
+        }
+
+        return added;
+    }
+
+    private boolean add(long key) {
+        int slot = getSlot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) return false;
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        return true;
+    }
+
+    private int getSlot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /**
+     * Returns the key with the letter added to the end of the word,
+     * or {@link #INVALID_KEY} if the key is invalid or the letter can't be packed.
+     * The empty word has key 0.
+     */
+    public static long append(long key, char letter) {
+        int code = letter - 'A' + 1;
+        if (key < 0 || code < 1 || code > MAX_CODE || key >>> ((MAX_LENGTH - 1) * BITS_PER_LETTER) != 0) return INVALID_KEY;
+
+        return (key << BITS_PER_LETTER) | code;
+    }
+
+    /**
+     * Returns the key of the letters from index {@code from} (inclusive) to {@code to} (exclusive),
+     * or {@link #INVALID_KEY} if they can't be packed.
+     */
+    public static long getKey(char[] letters, int from, int to) {
+        if (to - from > MAX_LENGTH) return INVALID_KEY;
+
+        long key = 0;
+        for (int i = from; i < to; i++) {
+            int code = letters[i] - 'A' + 1;
+            if (code < 1 || code > MAX_CODE) return INVALID_KEY;
+
+            key = (key << BITS_PER_LETTER) | code;
+        }
+
+        return key;
+    }
+
+    public static long getKey(CharSequence word) {
+        if (word.length() > MAX_LENGTH) return INVALID_KEY;
+
+        long key = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int code = word.charAt(i) - 'A' + 1;
+            if (code < 1 || code > MAX_CODE) return INVALID_KEY;
+
+            key = (key << BITS_PER_LETTER) | code;
+        }
+
+        return key;
+    }
+
+    public boolean containsKey(long key) {
+        if (key <= 0) return false;
+
+        int slot = getSlot(key);
+        long stored;
+        while ((stored = keys[slot]) != 0) {
+            if (stored == key) return true;
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    public boolean contains(CharSequence word) {
+        return containsKey(getKey(word));
+    }
+
+    /**
+     * Checks if the letters from index {@code from} (inclusive) to {@code to} (exclusive) form a word.
+     */
+    public boolean contains(char[] letters, int from, int to) {
+        return containsKey(getKey(letters, from, to));
+    }
+
+    /**
+     * Passes every key of the set to the consumer in no particular order.
+     */
+    public void forEachKey(LongConsumer consumer) {
+        for (long key : keys) {
+            if (key != 0) consumer.accept(key);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,179 @@
+package com.adex.wordgame;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Array backed trie used for looking up words one letter at a time.
+ * <p>
+ * Each node takes two ints: a bit mask of the letters continuing the prefix and the index of the first child.
+ * Children of a node are stored next to each other in alphabetical order,
+ * so the child of a letter is found by counting the set bits of the mask before the letter.
+ * The highest bit of the mask marks that the prefix is a word.
+ * <p>
+ * Nodes are referred with their index, which allows walking the trie without allocating anything.
+ * <p>
+ * The nodes can be read straight from a memory mapped file, see {@link #write(IntBuffer)}.
+ * Tries built in memory keep the nodes in an array, which is faster to read than a buffer.
+ */
+public class WordTrie {
+
+    public static final int ROOT = 0;
+    public static final int NONE = -1;
+
+    public static final int MAX_LETTER_COUNT = 31;
+
+    private static final int WORD_BIT = 1 << 31;
+
+    private final int[] nodes; // null if the nodes are in a buffer
+    private final IntBuffer bufferNodes; // null if the nodes are in an array
+    private final int nodeCount;
+    private final int wordCount;
+
+    public WordTrie(String[] words, int letterCount) {
+        if (letterCount > MAX_LETTER_COUNT) {
+            throw new IllegalArgumentException("Trie supports at most " + MAX_LETTER_COUNT + " letters, got " + letterCount);
+        }
+
+        // Building a temporary trie where each node has a slot for every letter
+        int[] children = new int[64 * letterCount];
+        boolean[] isWord = new boolean[64];
+        int nodeCount = 1;
+        int wordCount = 0;
+
+        for (String word : words) {
+            int node = ROOT;
+            for (int i = 0; i < word.length(); i++) {
+                int letter = word.charAt(i) - 'A';
+                if (letter < 0 || letter >= letterCount) {
+                    throw new IllegalArgumentException("Invalid letter '" + word.charAt(i) + "' in word " + word);
+                }
+
+                int slot = node * letterCount + letter;
+                if (children[slot] == 0) { // root is never a child, so 0 means no child
+                    if (nodeCount == isWord.length) {
+                        isWord = Arrays.copyOf(isWord, nodeCount * 2);
+                        children = Arrays.copyOf(children, nodeCount * 2 * letterCount);
+                    }
+                    children[slot] = nodeCount++;
+                }
+                node = children[slot];
+            }
+
+            if (!isWord[node]) wordCount++;
+            isWord[node] = true;
+        }
+
+        // Laying the nodes out in breadth first order, so the children of each node are next to each other
+        int[] nodes = new int[2 * nodeCount];
+        int[] queue = new int[nodeCount];
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            int node = queue[head];
+            int mask = isWord[node] ? WORD_BIT : 0;
+
+            nodes[2 * head + 1] = tail;
+            for (int letter = 0; letter < letterCount; letter++) {
+                int child = children[node * letterCount + letter];
+                if (child == 0) continue;
+
+                mask |= 1 << letter;
+                queue[tail++] = child;
+            }
+            nodes[2 * head] = mask;
+        }
+
+        this.nodes = nodes;
+        bufferNodes = null;
+        this.nodeCount = nodeCount;
+        this.wordCount = wordCount;
+    }
+
+    /**
+     * Reads a trie written with {@link #write(IntBuffer)} starting from the current position of the buffer.
+     * The nodes are not copied, so the buffer can be memory mapped.
+     * Position of the buffer is moved to the end of the trie.
+     */
+    public WordTrie(IntBuffer buffer) {
+        nodeCount = buffer.get();
+        wordCount = buffer.get();
+
+        nodes = null;
+        bufferNodes = buffer.slice().limit(2 * nodeCount);
+        buffer.position(buffer.position() + 2 * nodeCount);
+    }
+
+    /**
+     * Writes node count, word count and the nodes, {@link #getIntCount()} ints in total.
+     */
+    public void write(IntBuffer out) {
+        out.put(nodeCount).put(wordCount);
+        if (nodes != null) out.put(nodes);
+        else out.put(bufferNodes.duplicate().rewind());
+    }
+
+    /**
+     * Returns the amount of ints {@link #write(IntBuffer)} writes.
+     */
+    public int getIntCount() {
+        return 2 + 2 * nodeCount;
+    }
+
+    private int getNode(int index) {
+        return nodes != null ? nodes[index] : bufferNodes.get(index);
+    }
+
+    /**
+     * Returns the node reached by adding the letter to the prefix of the given node.
+     *
+     * @return the next node or {@link #NONE} if no word starts with the new prefix
+     */
+    public int next(int node, char letter) {
+        int index = letter - 'A';
+        if (index < 0 || index >= MAX_LETTER_COUNT) return NONE;
+
+        int mask = getNode(2 * node);
+        int bit = 1 << index;
+        if ((mask & bit) == 0) return NONE;
+
+        return getNode(2 * node + 1) + Integer.bitCount(mask & (bit - 1));
+    }
+
+    /**
+     * Checks if the letters leading to the node form a word.
+     */
+    public boolean isWord(int node) {
+        return getNode(2 * node) < 0;
+    }
+
+    public boolean contains(CharSequence word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length(); i++) {
+            node = next(node, word.charAt(i));
+            if (node == NONE) return false;
+        }
+
+        return isWord(node);
+    }
+
+    /**
+     * Checks if the letters from index {@code from} (inclusive) to {@code to} (exclusive) form a word.
+     */
+    public boolean contains(char[] letters, int from, int to) {
+        int node = ROOT;
+        for (int i = from; i < to; i++) {
+            node = next(node, letters[i]);
+            if (node == NONE) return false;
+        }
+
+        return isWord(node);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+}
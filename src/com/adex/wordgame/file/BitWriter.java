@@ -0,0 +1,86 @@
+package com.adex.wordgame.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes bits into a stream, first bit being the lowest bit of each byte.
+ * Complete bytes are collected into a fixed size buffer before writing,
+ * so memory use doesn't depend on the amount of data.
+ */
+public class BitWriter {
+
+    private final OutputStream out;
+
+    private final byte[] buffer = new byte[8192];
+    private int length;
+
+    private long pending; // bits not yet in buffer, first bit being the lowest
+    private int pendingCount;
+
+    private long bitCount;
+
+    public BitWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public void writeBit(boolean bit) throws IOException {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Writes the lowest count bits of the value, lowest first.
+     *
+     * @param count 0—64
+     */
+    public void writeBits(long value, int count) throws IOException {
+        if (count > 56) { // pending can hold 7 bits, so 56 bits fit at once
+            writeBits(value, 32);
+            writeBits(value >>> 32, count - 32);
+            return;
+        }
+
+        if (count < 64) value &= (1L << count) - 1;
+        pending |= value << pendingCount;
+        pendingCount += count;
+        bitCount += count;
+
+        while (pendingCount >= 8) {
+            if (length == buffer.length) writeBuffer();
+
+            buffer[length++] = (byte) pending;
+            pending >>>= 8;
+            pendingCount -= 8;
+        }
+    }
+
+    /**
+     * Returns the amount of bits written.
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Returns the amount of bits written into the last unfinished byte.
+     */
+    public int getBitsInByte() {
+        return pendingCount;
+    }
+
+    /**
+     * Writes all complete bytes to the stream.
+     * If the last byte is unfinished, the rest of it is filled with zeros.
+     */
+    public void flush() throws IOException {
+        if (pendingCount > 0) writeBits(0, 8 - pendingCount);
+
+        writeBuffer();
+        out.flush();
+    }
+
+    private void writeBuffer() throws IOException {
+        out.write(buffer, 0, length);
+        length = 0;
+    }
+}
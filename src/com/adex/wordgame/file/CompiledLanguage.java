@@ -0,0 +1,143 @@
+package com.adex.wordgame.file;
+
+import com.adex.wordgame.WordTrie;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Language compiled into a form which can be used straight from a memory mapped file without decoding it.
+ * <p>
+ * The file consists of ints: <p>
+ * - magic number and version <p>
+ * - length and CRC-32 checksum of the encoded language it was compiled from <p>
+ * - letter count followed by the score and frequency of each letter <p>
+ * - the word trie, see {@link WordTrie#write(IntBuffer)}
+ * <p>
+ * The ints are in the byte order of the machine which wrote the file, so reading the trie doesn't swap bytes.
+ * The order is detected from the magic number, so files written on other machines can still be read.
+ */
+public class CompiledLanguage {
+
+    public static final int MAGIC = 0x4C4E4758; // "LNGX"
+    public static final int VERSION = 2;
+
+    private static final int HEADER_INTS = 5;
+
+    public final int sourceLength;
+    public final int sourceChecksum;
+    public final int[] scores;
+    public final int[] frequencies;
+    public final WordTrie trie;
+
+    /**
+     * @param source the encoded language the words are from, see {@link #isCompiledFrom(byte[])}
+     */
+    public CompiledLanguage(byte[] source, int[] scores, int[] frequencies, WordTrie trie) {
+        this(source.length, getChecksum(source), scores, frequencies, trie);
+    }
+
+    private CompiledLanguage(int sourceLength, int sourceChecksum, int[] scores, int[] frequencies, WordTrie trie) {
+        this.sourceLength = sourceLength;
+        this.sourceChecksum = sourceChecksum;
+        this.scores = scores;
+        this.frequencies = frequencies;
+        this.trie = trie;
+    }
+
+    public static int getChecksum(byte[] source) {
+        CRC32 crc = new CRC32();
+        crc.update(source);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Checks if the language was compiled from the encoded language.
+     * If not, the encoded language has changed after compiling.
+     */
+    public boolean isCompiledFrom(byte[] source) {
+        return source.length == sourceLength && getChecksum(source) == sourceChecksum;
+    }
+
+    /**
+     * Maps the file to memory.
+     * Only the letter data is copied, the trie is read from the mapped file.
+     * Processes using the same file share the pages through the page cache of the OS.
+     */
+    public static CompiledLanguage open(String path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        return read(buffer);
+    }
+
+    public static CompiledLanguage read(ByteBuffer bytes) {
+        bytes.order(ByteOrder.nativeOrder());
+        if (bytes.getInt(0) != MAGIC) {
+            if (Integer.reverseBytes(bytes.getInt(0)) != MAGIC) throw new IllegalArgumentException("Data is not a compiled language!");
+
+            // Written on a machine with the other byte order
+            bytes.order(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        }
+
+        IntBuffer data = bytes.asIntBuffer();
+        data.get(); // magic number
+
+        int version = data.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Compiled language version " + version + " is not supported!");
+        }
+
+        int sourceLength = data.get();
+        int sourceChecksum = data.get();
+
+        int letterCount = data.get();
+        int[] scores = new int[letterCount];
+        int[] frequencies = new int[letterCount];
+        for (int i = 0; i < letterCount; i++) {
+            scores[i] = data.get();
+            frequencies[i] = data.get();
+        }
+
+        return new CompiledLanguage(sourceLength, sourceChecksum, scores, frequencies, new WordTrie(data));
+    }
+
+    /**
+     * Writes the language into a temporary file and moves it over the path.
+     * The file is never truncated in place, so languages already mapped from it keep their words.
+     */
+    public void write(String path) throws IOException {
+        Path target = Paths.get(path);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+
+        ByteBuffer bytes = ByteBuffer.allocate(4 * (HEADER_INTS + 2 * scores.length + trie.getIntCount())).order(ByteOrder.nativeOrder());
+        IntBuffer data = bytes.asIntBuffer();
+        data.put(MAGIC).put(VERSION);
+        data.put(sourceLength).put(sourceChecksum);
+
+        data.put(scores.length);
+        for (int i = 0; i < scores.length; i++) {
+            data.put(scores[i]).put(frequencies[i]);
+        }
+
+        trie.write(data);
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) channel.write(bytes);
+        }
+
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -3,6 +3,8 @@ package com.adex.wordgame.file;
 import com.adex.wordgame.util.Pair;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -23,7 +25,7 @@ public class DataReader {
      * but it's not high on the priority list.
      */
     public static Pair<ArrayList<Pair<Integer, Integer>>, String[]> getLanguageWords(String language) throws IOException {
-        String[] result = FileCompressor.decode(getFileContent("resources/languages/" + language + ".lng")).split(",");
+        String[] result = FileCompressor.decode(getFileContent(getLanguagePath(language))).split(",");
         String[] words = new String[result.length - 1];
         System.arraycopy(result, 1, words, 0, words.length);
 
@@ -37,4 +39,67 @@ public class DataReader {
         return new Pair<>(letterData, words);
     }
 
+    /**
+     * Returns the scores and frequencies of the letters of the language, reading only the header of the file.
+     * Much faster than {@link #getLanguageWords(String)}, as the words are not decoded.
+     */
+    public static ArrayList<Pair<Integer, Integer>> getLanguageLetters(String language) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(getLanguagePath(language)))) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            readFully(channel, header);
+
+            int version = header.get(0);
+            if (version < 1 || version > 3) {
+                throw new IllegalArgumentException("Encoding version " + version + " is not supported!");
+            }
+
+            int letterCount = header.get(1);
+            ByteBuffer letters = ByteBuffer.allocate(2 * letterCount);
+            readFully(channel, letters);
+
+            ArrayList<Pair<Integer, Integer>> letterData = new ArrayList<>(letterCount);
+            for (int i = 0; i < letterCount; i++) {
+                int first = letters.get(2 * i);
+                int second = letters.get(2 * i + 1);
+                letterData.add(new Pair<>((first & 0xf0) >> 4, ((0xf & first) << 8) + (0xff & second))); // score : frequency
+            }
+
+            return letterData;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new IOException("Unexpected end of language file!");
+        }
+    }
+
+    public static String getLanguagePath(String language) {
+        return "resources/languages/" + language + ".lng";
+    }
+
+    public static String getCompiledLanguagePath(String language) {
+        return "resources/languages/" + language + ".lngx";
+    }
+
+    /**
+     * Checks if the language has been compiled with {@link LanguageCreator}.
+     */
+    public static boolean hasCompiledLanguage(String language) {
+        return Files.isRegularFile(Paths.get(getCompiledLanguagePath(language)));
+    }
+
+    public static CompiledLanguage getCompiledLanguage(String language) throws IOException {
+        return CompiledLanguage.open(getCompiledLanguagePath(language));
+    }
+
+    /**
+     * Checks if the encoded language has changed after compiling it.
+     * False if there is no encoded language.
+     */
+    public static boolean isOutdated(CompiledLanguage compiled, String language) throws IOException {
+        if (!Files.isRegularFile(Paths.get(getLanguagePath(language)))) return false;
+        return !compiled.isCompiledFrom(getFileContent(getLanguagePath(language)));
+    }
+
 }
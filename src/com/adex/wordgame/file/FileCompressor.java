@@ -1,12 +1,13 @@
 package com.adex.wordgame.file;
 
 import com.adex.wordgame.util.Pair;
-import com.adex.wordgame.util.Util;
 
-import java.util.ArrayList;
+import java.io.*;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * TODO: explain compression
@@ -15,6 +16,21 @@ public class FileCompressor {
 
     public static final double LN2 = Math.log(2d);
 
+    /**
+     * Amount of bits decoded with one lookup
+     */
+    public static final int LOOKUP_BITS = 10;
+
+    /**
+     * Comma and up to 31 letters
+     */
+    private static final int SYMBOLS = 32;
+
+    /**
+     * Default amount of letter pairs in each block
+     */
+    public static final int BLOCK_PAIRS = 1 << 13;
+
     /**
      * Encoded text should only consist of capital letters and words being separated by ",".
      * For non-English characters, see TODO: do this in the UI code
@@ -24,164 +40,341 @@ public class FileCompressor {
      * @param letterFrequencies Array of letter frequencies; range: 0—4095
      */
     public static byte[] encode(byte[] words, int[] letterScores, int[] letterFrequencies) {
-        int length = words.length;
-        int differentLetterCount = 1;
-        int difference;
-        for (int i = 0; i < length; i++) {
-            difference = words[i] - 'A'; // when hitting a comma, this will be negative
-            if (difference >= differentLetterCount)
-                differentLetterCount = difference + 1;
-        }
-
-        if ((length & 1) == 1) {
-            length += 1;
-            byte[] b = new byte[words.length + 1];
-            System.arraycopy(words, 0, b, 1, words.length);
-            b[0] = (byte) ',';
-            words = b;
-        }
-
-        LinkedList<Short> toCode = new LinkedList<>();
-
-        int differentLettersSquared = differentLetterCount * differentLetterCount;
-        int combiantionCount = differentLettersSquared + differentLetterCount * 2;
-        int[] frequencies = new int[combiantionCount]; // accounting for commas
-        int first, second;
-        short id;
-        for (int i = 0; i < length; i += 2) {
-            first = words[i] - 'A';
-            second = words[i + 1] - 'A';
-
-
-            if (first < 0) { // comma
-                id = (short) (differentLettersSquared + second);
-            } else if (second < 0) { // comma
-                id = (short) (differentLettersSquared + differentLetterCount + first);
-            } else {
-                id = (short) (differentLetterCount * first + second);
-            }
-            frequencies[id]++;
-            toCode.add(id);
+        ByteArrayOutputStream output = new ByteArrayOutputStream(words.length);
+        try {
+            encode(() -> new ByteArrayInputStream(words), letterScores, letterFrequencies, output);
+        } catch (IOException e) { // byte array streams don't throw
+            throw new UncheckedIOException(e);
         }
 
-        int nodeValueBitLength = (int) Math.ceil(Math.log(combiantionCount) / LN2 + 0.000001d); // log2 x = ln x / ln 2 , adding .000001 to account for rounding errors
+        return output.toByteArray();
+    }
 
-        // Creating frequencyTree
-        PriorityQueue<Pair<Integer, FrequencyTree.Node>> queue = new PriorityQueue<>(Comparator.comparingInt(e -> e.first));
-        for (short i = 0; i < combiantionCount; i++) {
-            if (frequencies[i] == 0) continue;
-            queue.add(new Pair<>(frequencies[i], new FrequencyTree.Node(i)));
-        }
+    /**
+     * Encodes the words into the stream.
+     * The words are read twice, first for counting the frequencies and then for writing them.
+     * Neither the words nor the encoded bits are held in memory, so memory use doesn't depend on the amount of words.
+     *
+     * @param words             Source of text containing all words, separated by a comma
+     * @param letterScores      Array of letter scores; range: 0—15
+     * @param letterFrequencies Array of letter frequencies; range: 0—4095
+     */
+    public static void encode(WordSource words, int[] letterScores, int[] letterFrequencies, OutputStream out) throws IOException {
+        Encoder encoder = new Encoder(words, false);
+        BitWriter output = new BitWriter(out);
 
-        while (queue.size() > 1) {
-            Pair<Integer, FrequencyTree.Node> left = queue.peek();
-            queue.remove();
-            Pair<Integer, FrequencyTree.Node> right = queue.peek();
-            queue.remove();
+        encoder.writeHeader(output, 1, letterScores, letterFrequencies);
+
+        // Calculating how many empty bits until end of last byte.
+        // Letter count and nodeValueBitLength are 8 and 16 bits, both divisible by 8, so they don't need to be counted
+        // Ie if encoded length is 642 bits, the last byte will have 2 bits used, therefore the value will be 8 - 2 = 6
+        // range: [1, 8]
+        int empty = (int) (8 - (output.getBitsInByte() + encoder.textLength) % 8);
+        // The empty bits are stored between the tree and the text.
+        // The last empty bit is 1 and the rest are 0
+        output.writeBits(1L << (empty - 1), empty);
 
-            queue.add(new Pair<>(left.first + right.first, new FrequencyTree.Node(left.second, right.second)));
+        // Adding text
+        FrequencyTree tree = encoder.frequencyTree;
+        encoder.forEachPair(id -> output.writeBits(tree.getCode(id), tree.getCodeLength(id)));
+
+        if (output.getBitsInByte() != 0) {
+            System.out.println("Empty space filling was wrong length!");
         }
 
-        Pair<Integer, FrequencyTree.Node> top = queue.peek();
-        queue.remove();
-        FrequencyTree frequencyTree = new FrequencyTree(top.second, combiantionCount);
+        output.flush();
+    }
 
-        ArrayList<Boolean> text = new ArrayList<>();
+    /**
+     * Encodes the words in blocks of {@link #BLOCK_PAIRS} letter pairs.
+     *
+     * @see #encodeInBlocks(WordSource, int[], int[], int, OutputStream)
+     */
+    public static byte[] encodeInBlocks(byte[] words, int[] letterScores, int[] letterFrequencies) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(words.length);
+        try {
+            encodeInBlocks(() -> new ByteArrayInputStream(words), letterScores, letterFrequencies, BLOCK_PAIRS, output);
+        } catch (IOException e) { // byte array streams don't throw
+            throw new UncheckedIOException(e);
+        }
 
-        while (toCode.size() > 0) {
-            id = toCode.removeFirst();
-            for (boolean step : frequencyTree.getPath(id)) text.add(step);
+        return output.toByteArray();
+    }
+
+    /**
+     * Encodes the words into blocks which can be decoded independently of each other.
+     * <p>
+     * The tree is canonical, so instead of the tree only the length of the path of each value is stored,
+     * see {@link FrequencyTree#fromCodeLengths(int[])}.
+     * The header is the same as in version 1, but the 2 bytes after the letter count are the amount of bits
+     * in each length, and the tree is replaced with the lengths.
+     * <p>
+     * After the lengths the rest of their last byte is empty.
+     * The lengths are followed by an index of the blocks instead of the text.
+     * The index consists of the amount of blocks followed by the amount of letter pairs and bytes in each block,
+     * all being 4 byte big-endian ints.
+     * Each block starts at the beginning of a byte and the rest of its last byte is empty.
+     * <p>
+     * The words are read three times: for counting the frequencies, for calculating the lengths of the blocks and for writing them.
+     *
+     * @param blockPairs Amount of letter pairs in each block, except the last one
+     */
+    public static void encodeInBlocks(WordSource words, int[] letterScores, int[] letterFrequencies, int blockPairs, OutputStream out) throws IOException {
+        if (blockPairs <= 0) throw new IllegalArgumentException("Blocks must contain at least one pair!");
+
+        Encoder encoder = new Encoder(words, true);
+        BitWriter output = new BitWriter(out);
+        FrequencyTree tree = encoder.frequencyTree;
+
+        encoder.writeHeader(output, 3, letterScores, letterFrequencies);
+        if (output.getBitsInByte() != 0) output.writeBits(0, 8 - output.getBitsInByte());
+
+        // Calculating the length of each block
+        long pairCount = (encoder.length + 1) / 2;
+        int blockCount = (int) ((pairCount + blockPairs - 1) / blockPairs);
+        long[] blockBits = new long[blockCount];
+        long[] pair = new long[1];
+        encoder.forEachPair(id -> blockBits[(int) (pair[0]++ / blockPairs)] += tree.getCodeLength(id));
+
+        output.writeBits(Integer.reverseBytes(blockCount), 32);
+        for (int block = 0; block < blockCount; block++) {
+            int pairs = (int) Math.min(blockPairs, pairCount - (long) block * blockPairs);
+            output.writeBits(Integer.reverseBytes(pairs), 32);
+            output.writeBits(Integer.reverseBytes((int) ((blockBits[block] + 7) / 8)), 32);
         }
 
-        ArrayList<Byte> output = new ArrayList<>();
-        // Setting the required size a bit higher than the largest possible size to save memory
-        output.ensureCapacity(text.size() + differentLetterCount *
-                2 + combiantionCount * nodeValueBitLength * nodeValueBitLength * nodeValueBitLength);
+        // Adding text
+        pair[0] = 0;
+        encoder.forEachPair(id -> {
+            output.writeBits(tree.getCode(id), tree.getCodeLength(id));
 
-        // Adding encoding version to data
-        output.add((byte) 1);
+            pair[0]++;
+            if (pair[0] % blockPairs == 0 && output.getBitsInByte() != 0) { // end of block
+                output.writeBits(0, 8 - output.getBitsInByte());
+            }
+        });
 
-        // adding letter count and nodeValueBitLength to encoded
-        output.add((byte) differentLetterCount);
-        output.add((byte) ((nodeValueBitLength >> 8) & 0xFF));
-        output.add((byte) (nodeValueBitLength & 0xFF));
+        output.flush();
+    }
 
-        // Add letter scores and frequencies
-        int score, freq;
-        for (int i = 0; i < differentLetterCount; i++) { // comma is not counted as a letter
-            score = letterScores[i];
-            freq = letterFrequencies[i];
+    /**
+     * Returns 0 for comma and 1 + index of the letter for letters.
+     */
+    private static int getSymbol(byte character) {
+        if (character == ',') return 0;
 
-            output.add((byte) (((score & 0xf) << 4) + ((freq >> 8) & 0xf)));
-            output.add((byte) (freq & 0xff));
+        int letter = character - 'A';
+        if (letter < 0 || letter >= SYMBOLS - 1) {
+            throw new IllegalArgumentException("Invalid character in words: " + (char) (character & 0xff));
         }
+        return letter + 1;
+    }
 
-        // add tree to encoded
-        int i = 0;
-        byte current = 0;
-        for (boolean b : frequencyTree.getBits(nodeValueBitLength)) {
-            if (b) current |= (1 << i);
-            i++;
+    /**
+     * Returns the id of 2 symbols.
+     * Ids of 2 letters come first, followed by letters after a comma and letters before a comma.
+     */
+    private static int getId(int first, int second, int differentLetterCount) {
+        if (first == 0) { // comma
+            if (second == 0) throw new IllegalArgumentException("Words can't be empty!");
+            return differentLetterCount * differentLetterCount + second - 1;
+        }
+        if (second == 0) { // comma
+            return differentLetterCount * differentLetterCount + differentLetterCount + first - 1;
+        }
 
-            if (i < 8) continue;
+        return differentLetterCount * (first - 1) + second - 1;
+    }
 
-            output.add(current);
-            current = 0;
-            i = 0;
+    /**
+     * Opens the text to encode.
+     * Called once for each pass over the text, so each call must start from the beginning.
+     */
+    public interface WordSource {
+        InputStream open() throws IOException;
+    }
+
+    private interface PairConsumer {
+        void accept(int id) throws IOException;
+    }
+
+    /**
+     * Counts the frequencies of letter pairs and creates their codes.
+     */
+    private static class Encoder {
+
+        private final WordSource words;
+        private final boolean canonical;
+
+        private long length;
+        private int differentLetterCount = 1;
+
+        private FrequencyTree frequencyTree;
+        private int nodeValueBitLength;
+        private int codeLengthBitLength;
+
+        private long textLength;
+
+        /**
+         * @param canonical If the tree should be replaced with the canonical tree with the same path lengths
+         */
+        private Encoder(WordSource words, boolean canonical) throws IOException {
+            this.words = words;
+            this.canonical = canonical;
+
+            createCodes(countPairs());
         }
 
-        int textLength = text.size();
-        // Calculating how many empty bits until end of last byte.
-        // Letter count and nodeValueBitLength are 8 and 16 bits, both divisible by 8, so they don't need to be counted
-        // Ie if encoded length is 642 bits, the last byte will have 2 bits used, therefore the value will be 8 - 2 = 6
-        // range: [1, 8]
-        int empty = 8 - (i + textLength) % 8;
-        // The empty bits are stored between the tree and the text.
-        // The last empty bit is 1 and the rest are 0
+        /**
+         * Text is encoded 2 characters at a time.
+         * If the length is odd, a comma is added to the start, which changes how characters are paired.
+         * Therefore, pairs are counted both as if the length was even and as if it was odd.
+         * Symbol 0 is comma and letters start from 1.
+         *
+         * @return frequencies of each id
+         */
+        private int[] countPairs() throws IOException {
+            int[] evenPairs = new int[SYMBOLS * SYMBOLS];
+            int[] oddPairs = new int[SYMBOLS * SYMBOLS];
+
+            int previous = 0; // comma in front of the text for odd pairing
+            try (InputStream in = words.open()) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    for (int i = 0; i < read; i++) {
+                        int symbol = getSymbol(buffer[i]);
+                        if (symbol > differentLetterCount) differentLetterCount = symbol;
+
+                        if ((length & 1) == 1) evenPairs[previous * SYMBOLS + symbol]++;
+                        else oddPairs[previous * SYMBOLS + symbol]++;
+
+                        previous = symbol;
+                        length++;
+                    }
+                }
+            }
+            int[] pairs = (length & 1) == 1 ? oddPairs : evenPairs;
+
+            int[] frequencies = new int[getCombinationCount()];
+            for (int first = 0; first <= differentLetterCount; first++) {
+                for (int second = 0; second <= differentLetterCount; second++) {
+                    int frequency = pairs[first * SYMBOLS + second];
+                    if (frequency == 0) continue;
 
-        if (i + empty < 8) { // The last empty bit is in the same byte but not the last
-            i += empty;
-            current |= (1 << (i - 1));
-        } else if (i + empty == 8) { // The last empty bit is the last bit of the byte
-            current |= (0x80);
-            output.add(current);
-            current = 0;
-            i = 0;
-        } else { // The last empty bit is in the next byte
-            output.add(current);
-            i += empty - 8;
-            current = (byte) (1 << (i - 1));
+                    frequencies[getId(first, second, differentLetterCount)] += frequency;
+                }
+            }
+
+            return frequencies;
         }
 
-        // Adding text
-        for (boolean b : text) {
-            if (b) current |= (1 << i);
-            i++;
+        private void createCodes(int[] frequencies) {
+            int combiantionCount = getCombinationCount(); // accounting for commas
+            nodeValueBitLength = (int) Math.ceil(Math.log(combiantionCount) / LN2 + 0.000001d); // log2 x = ln x / ln 2 , adding .000001 to account for rounding errors
+
+            // Creating frequencyTree
+            PriorityQueue<Pair<Integer, FrequencyTree.Node>> queue = new PriorityQueue<>(Comparator.comparingInt(e -> e.first));
+            for (short i = 0; i < combiantionCount; i++) {
+                if (frequencies[i] == 0) continue;
+                queue.add(new Pair<>(frequencies[i], new FrequencyTree.Node(i)));
+            }
+
+            while (queue.size() > 1) {
+                Pair<Integer, FrequencyTree.Node> left = queue.peek();
+                queue.remove();
+                Pair<Integer, FrequencyTree.Node> right = queue.peek();
+                queue.remove();
+
+                queue.add(new Pair<>(left.first + right.first, new FrequencyTree.Node(left.second, right.second)));
+            }
+
+            Pair<Integer, FrequencyTree.Node> top = queue.peek();
+            queue.remove();
+            frequencyTree = new FrequencyTree(top.second, combiantionCount);
 
-            if (i < 8) continue;
+            if (canonical) frequencyTree = FrequencyTree.fromCodeLengths(frequencyTree.getCodeLengths());
 
-            output.add(current);
-            current = 0;
-            i = 0;
+            int maxCodeLength = 0;
+            for (short id = 0; id < combiantionCount; id++) {
+                int codeLength = frequencyTree.getCodeLength(id);
+                if (codeLength > maxCodeLength) maxCodeLength = codeLength;
+                textLength += (long) frequencies[id] * codeLength;
+            }
+            codeLengthBitLength = 32 - Integer.numberOfLeadingZeros(maxCodeLength);
         }
 
-        if (i != 0) {
-            System.out.println("Empty space filling was wrong length!");
+        private int getCombinationCount() {
+            return differentLetterCount * differentLetterCount + differentLetterCount * 2;
+        }
+
+        /**
+         * Writes the version, letter data and tree.
+         * The canonical tree is written as the lengths of the paths.
+         */
+        private void writeHeader(BitWriter output, int version, int[] letterScores, int[] letterFrequencies) throws IOException {
+            // Adding encoding version to data
+            output.writeBits(version, 8);
+
+            // adding letter count and nodeValueBitLength to encoded
+            int valueBitLength = canonical ? codeLengthBitLength : nodeValueBitLength;
+            output.writeBits(differentLetterCount, 8);
+            output.writeBits((valueBitLength >> 8) & 0xFF, 8);
+            output.writeBits(valueBitLength & 0xFF, 8);
+
+            // Add letter scores and frequencies
+            int score, freq;
+            for (int i = 0; i < differentLetterCount; i++) { // comma is not counted as a letter
+                score = letterScores[i];
+                freq = letterFrequencies[i];
+
+                output.writeBits(((score & 0xf) << 4) + ((freq >> 8) & 0xf), 8);
+                output.writeBits(freq & 0xff, 8);
+            }
+
+            // add tree to encoded
+            if (canonical) {
+                for (int length : frequencyTree.getCodeLengths()) output.writeBits(length, codeLengthBitLength);
+            } else {
+                for (boolean b : frequencyTree.getBits(nodeValueBitLength)) output.writeBit(b);
+            }
         }
 
-        return Util.convertByteArray(output.toArray(new Byte[0]));
+        /**
+         * Reads the text again and passes the id of each pair to the consumer.
+         * If the length of the text is odd, the first pair starts with a comma.
+         */
+        private void forEachPair(PairConsumer consumer) throws IOException {
+            try (InputStream in = words.open()) {
+                byte[] buffer = new byte[8192];
+                int first = (length & 1) == 1 ? 0 : -1; // first symbol of the current pair, -1 if not read yet
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    for (int i = 0; i < read; i++) {
+                        int symbol = getSymbol(buffer[i]);
+                        if (first < 0) {
+                            first = symbol;
+                            continue;
+                        }
+
+                        consumer.accept(getId(first, symbol, differentLetterCount));
+                        first = -1;
+                    }
+                }
+            }
+        }
     }
 
     public static String decode(final byte[] bytes) {
 
         int version = bytes[0];
 
-        if (version != 1) {
+        if (version < 1 || version > 3) {
             throw new IllegalArgumentException("Encoding version " + version + " is not supported!");
         }
 
         int differentLetters = bytes[1];
-        int nodeValueBitLength = (bytes[2] << 8) + bytes[3];
+        int nodeValueBitLength = (bytes[2] << 8) + bytes[3]; // in version 3 bits of each code length
         int lettersSquared = differentLetters * differentLetters;
         int combinationCount = lettersSquared + 2 * differentLetters;
 
@@ -214,33 +407,219 @@ public class FileCompressor {
             return value;
         };
 
-        FrequencyTree frequencyTree = new FrequencyTree(data, nodeValueBitLength, combinationCount); // Reading tree
-        while (!data.getNext()) ; // Skipping empty bits
+        // Reading tree
+        FrequencyTree frequencyTree = version == 3
+                ? FrequencyTree.fromCodeLengths(data, nodeValueBitLength, combinationCount)
+                : new FrequencyTree(data, nodeValueBitLength, combinationCount);
+        if (version == 1) {
+            while (!data.getNext()) ; // Skipping empty bits
+        } else if (i[0] != 0) { // rest of the byte is empty
+            i[0] = 0;
+            i[1]++;
+        }
 
-        // Reading text
-        StringBuilder text = new StringBuilder(sb);
-        char first, second;
-        while (i[1] < bytes.length) {
-            // Covert id to 2 letters
-            int id = frequencyTree.getValue(data);
+        // Letters of each id
+        char[] pairs = new char[2 * combinationCount];
+        for (int id = 0; id < combinationCount; id++) {
             if (id < lettersSquared) {
-                first = (char) (id / differentLetters + 'A');
-                second = (char) (id % differentLetters + 'A');
+                pairs[2 * id] = (char) (id / differentLetters + 'A');
+                pairs[2 * id + 1] = (char) (id % differentLetters + 'A');
             } else if (id < lettersSquared + differentLetters) {
-                first = ',';
-                second = (char) (id - lettersSquared + 'A');
+                pairs[2 * id] = ',';
+                pairs[2 * id + 1] = (char) (id - lettersSquared + 'A');
             } else {
-                first = (char) (id - lettersSquared - differentLetters + 'A');
-                second = ',';
+                pairs[2 * id] = (char) (id - lettersSquared - differentLetters + 'A');
+                pairs[2 * id + 1] = ',';
             }
+        }
+
+        // Reading text
+        FrequencyTree.LookupTable table = frequencyTree.createLookupTable(LOOKUP_BITS);
+        if (version >= 2) {
+            char[] text = decodeBlocks(bytes, i[1], table, pairs);
+            if (text.length > 0 && text[0] == ',') sb.append(text, 1, text.length - 1);
+            else sb.append(text);
 
-            // Add letters to text
-            text.append(first).append(second);
+            return sb.toString();
         }
 
-        if (text.charAt(0) == ',') sb.append(text.substring(1));
-        else sb.append(text);
+        int[] entries = table.entries;
+        int mask = (1 << LOOKUP_BITS) - 1;
+
+        char[] text = new char[4 * bytes.length];
+        int length = 0;
+
+        // Unread bits, first bit being the lowest
+        long buffer = 0;
+        int buffered = 0;
+        int index = i[1];
+        if (i[0] != 0) { // text starts in the middle of a byte
+            buffer = (bytes[index++] & 0xff) >>> i[0];
+            buffered = 8 - i[0];
+        }
+
+        while (true) {
+            while (buffered <= 56 && index < bytes.length) {
+                buffer |= (long) (bytes[index++] & 0xff) << buffered;
+                buffered += 8;
+            }
+            if (buffered == 0) break;
+
+            int entry = entries[(int) buffer & mask];
+            int id, pathLength;
+            if (entry >= 0) {
+                id = entry >>> 8;
+                pathLength = entry & 0xff;
+            } else { // path is longer than the table
+                FrequencyTree.Node node = table.nodes[-1 - entry];
+                pathLength = LOOKUP_BITS;
+                while (!node.hasValue) {
+                    node = ((buffer >>> pathLength) & 1) != 0 ? node.right : node.left;
+                    pathLength++;
+                }
+                id = node.value;
+            }
+
+            if (pathLength > buffered) {
+                throw new IllegalArgumentException("Encoded text ends in the middle of a value!");
+            }
+            buffer >>>= pathLength;
+            buffered -= pathLength;
+
+            if (length + 2 > text.length) text = Arrays.copyOf(text, text.length * 2);
+            text[length++] = pairs[2 * id];
+            text[length++] = pairs[2 * id + 1];
+        }
+
+        if (length > 0 && text[0] == ',') sb.append(text, 1, length - 1);
+        else sb.append(text, 0, length);
 
         return sb.toString();
     }
+
+    /**
+     * Reads the block index and decodes the blocks in parallel into a single array.
+     *
+     * @param index Index of the first byte of the block index
+     */
+    private static char[] decodeBlocks(byte[] bytes, int index, FrequencyTree.LookupTable table, char[] pairs) {
+        int blockCount = readInt(bytes, index);
+        index += 4;
+
+        // Each block knows where its text and bits start from the lengths of the blocks before it
+        int[] textStarts = new int[blockCount + 1];
+        int[] byteStarts = new int[blockCount + 1];
+        byteStarts[0] = index + 8 * blockCount;
+        for (int block = 0; block < blockCount; block++) {
+            textStarts[block + 1] = textStarts[block] + 2 * readInt(bytes, index);
+            byteStarts[block + 1] = byteStarts[block] + readInt(bytes, index + 4);
+            index += 8;
+        }
+
+        if (byteStarts[blockCount] > bytes.length) {
+            throw new IllegalArgumentException("Encoded text ends in the middle of a block!");
+        }
+
+        char[] text = new char[textStarts[blockCount]];
+        ForkJoinPool.commonPool().invoke(new BlockDecoder(bytes, table, pairs, text, textStarts, byteStarts, 0, blockCount));
+        return text;
+    }
+
+    /**
+     * Decodes the letter pairs of a block into text.
+     *
+     * @param index     Index of the first byte of the block
+     * @param end       Index of the byte after the block
+     * @param length    Index in text where to start writing
+     * @param pairCount Amount of pairs in the block
+     */
+    private static void decodeBlock(byte[] bytes, int index, int end, FrequencyTree.LookupTable table,
+                                    char[] pairs, char[] text, int length, int pairCount) {
+        int[] entries = table.entries;
+        int mask = (1 << LOOKUP_BITS) - 1;
+
+        // Unread bits, first bit being the lowest
+        long buffer = 0;
+        int buffered = 0;
+
+        for (int pair = 0; pair < pairCount; pair++) {
+            while (buffered <= 56 && index < end) {
+                buffer |= (long) (bytes[index++] & 0xff) << buffered;
+                buffered += 8;
+            }
+
+            int entry = entries[(int) buffer & mask];
+            int id, pathLength;
+            if (entry >= 0) {
+                id = entry >>> 8;
+                pathLength = entry & 0xff;
+            } else { // path is longer than the table
+                FrequencyTree.Node node = table.nodes[-1 - entry];
+                pathLength = LOOKUP_BITS;
+                while (!node.hasValue) {
+                    node = ((buffer >>> pathLength) & 1) != 0 ? node.right : node.left;
+                    pathLength++;
+                }
+                id = node.value;
+            }
+
+            if (pathLength > buffered) {
+                throw new IllegalArgumentException("Encoded text ends in the middle of a value!");
+            }
+            buffer >>>= pathLength;
+            buffered -= pathLength;
+
+            text[length++] = pairs[2 * id];
+            text[length++] = pairs[2 * id + 1];
+        }
+    }
+
+    private static int readInt(byte[] bytes, int index) {
+        return ((bytes[index] & 0xff) << 24) | ((bytes[index + 1] & 0xff) << 16)
+                | ((bytes[index + 2] & 0xff) << 8) | (bytes[index + 3] & 0xff);
+    }
+
+    /**
+     * Decodes the blocks from start (inclusive) to end (exclusive), splitting the range until a single block is left.
+     */
+    @SuppressWarnings("serial") // never serialized
+    private static class BlockDecoder extends RecursiveAction {
+
+        private final byte[] bytes;
+        private final FrequencyTree.LookupTable table;
+        private final char[] pairs;
+        private final char[] text;
+        private final int[] textStarts;
+        private final int[] byteStarts;
+
+        private final int start;
+        private final int end;
+
+        private BlockDecoder(byte[] bytes, FrequencyTree.LookupTable table, char[] pairs, char[] text,
+                             int[] textStarts, int[] byteStarts, int start, int end) {
+            this.bytes = bytes;
+            this.table = table;
+            this.pairs = pairs;
+            this.text = text;
+            this.textStarts = textStarts;
+            this.byteStarts = byteStarts;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > 1) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new BlockDecoder(bytes, table, pairs, text, textStarts, byteStarts, start, middle),
+                        new BlockDecoder(bytes, table, pairs, text, textStarts, byteStarts, middle, end));
+                return;
+            }
+
+            for (int block = start; block < end; block++) {
+                decodeBlock(bytes, byteStarts[block], byteStarts[block + 1], table, pairs, text,
+                        textStarts[block], (textStarts[block + 1] - textStarts[block]) / 2);
+            }
+        }
+    }
 }
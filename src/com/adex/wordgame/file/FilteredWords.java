@@ -0,0 +1,173 @@
+package com.adex.wordgame.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Words of a raw word file with a length in the given range, read straight from the file.
+ * <p>
+ * Each {@link #open()} reads the file again through a file channel and gives the words separated by commas,
+ * which is the format {@link FileCompressor} expects.
+ * Only the buffer and the current word are held in memory, so the file can be larger than the heap.
+ * Lengths are counted in bytes, so the words should be ASCII, as they are after {@link LangaugeFormatter}.
+ */
+public class FilteredWords implements FileCompressor.WordSource {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final byte separator;
+    private final int minLength;
+    private final int maxLength;
+
+    /**
+     * @param separator ASCII character between the words
+     */
+    public FilteredWords(Path path, char separator, int minLength, int maxLength) {
+        if (separator >= 128) throw new IllegalArgumentException("Word separator must be an ASCII character!");
+
+        this.path = path;
+        this.separator = (byte) separator;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return new WordStream(FileChannel.open(path));
+    }
+
+    /**
+     * Reads every word into a list.
+     */
+    public ArrayList<String> readWords() throws IOException {
+        ArrayList<String> words = new ArrayList<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] word = new byte[maxLength];
+        int length = 0;
+
+        try (InputStream in = open()) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] != ',') {
+                        word[length++] = buffer[i];
+                        continue;
+                    }
+
+                    words.add(new String(word, 0, length, StandardCharsets.UTF_8));
+                    length = 0;
+                }
+            }
+        }
+
+        if (length > 0) words.add(new String(word, 0, length, StandardCharsets.UTF_8));
+        return words;
+    }
+
+    /**
+     * Copies the words with a valid length from the channel, replacing the separators with commas.
+     */
+    private class WordStream extends InputStream {
+
+        private final FileChannel channel;
+        private final ByteBuffer input;
+
+        private final byte[] pending; // comma and the current word
+        private int position; // next byte of pending to return
+        private int length; // bytes in pending
+        private boolean first; // the first word has no comma in front of it
+        private boolean ended; // the channel has been read to the end
+
+        private WordStream(FileChannel channel) {
+            this.channel = channel;
+            input = ByteBuffer.allocate(BUFFER_SIZE);
+            input.flip();
+
+            pending = new byte[maxLength + 1];
+            pending[0] = ',';
+            position = 0;
+            length = 0;
+            first = true;
+            ended = false;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == length && !nextWord()) return -1;
+            return pending[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+
+            int count = 0;
+            while (count < len) {
+                if (position == length && !nextWord()) break;
+
+                int copied = Math.min(len - count, length - position);
+                System.arraycopy(pending, position, b, off + count, copied);
+                position += copied;
+                count += copied;
+            }
+
+            return count == 0 ? -1 : count;
+        }
+
+        /**
+         * Reads until the end of the next word with a valid length.
+         *
+         * @return false if there are no more words
+         */
+        private boolean nextWord() throws IOException {
+            int wordLength = 0;
+            while (true) {
+                if (!input.hasRemaining() && (ended || !fill())) {
+                    ended = true;
+                    return wordLength > 0 && accept(wordLength); // the text doesn't end with an empty word
+                }
+
+                byte b = input.get();
+                if (b == separator) {
+                    if (accept(wordLength)) return true;
+
+                    wordLength = 0;
+                    continue;
+                }
+
+                if (wordLength < maxLength) pending[1 + wordLength] = b;
+                wordLength++;
+            }
+        }
+
+        /**
+         * Makes the word the next bytes to return if its length is valid.
+         */
+        private boolean accept(int wordLength) {
+            if (wordLength < minLength || wordLength > maxLength) return false;
+
+            position = first ? 1 : 0;
+            length = 1 + wordLength;
+            first = false;
+            return true;
+        }
+
+        private boolean fill() throws IOException {
+            input.clear();
+            int read = channel.read(input);
+            input.flip();
+            return read > 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -1,13 +1,26 @@
 package com.adex.wordgame.file;
 
+import java.util.ArrayList;
+
 public class FrequencyTree {
 
+    /**
+     * Maximum length of a path, so that each path fits in an int
+     */
+    public static final int MAX_CODE_LENGTH = 32;
+
     public final Node root;
-    private final boolean[][] paths;
+
+    // Paths packed into ints, first step being the lowest bit. Left is 0 and right is 1.
+    private final int[] codes;
+    private final int[] codeLengths;
 
     public FrequencyTree(Node root, int size) {
         this.root = root;
-        paths = generatePaths(size);
+
+        codes = new int[size];
+        codeLengths = new int[size];
+        root.addCode(codes, codeLengths, 0, 0);
     }
 
     /**
@@ -15,28 +28,132 @@ public class FrequencyTree {
      * @param n           Amount of bits used for storing of each value
      */
     public FrequencyTree(DataFetcher dataFetcher, int n, int size) {
-        this.root = Node.fromBits(dataFetcher, n);
-        paths = generatePaths(size);
+        this(Node.fromBits(dataFetcher, n), size);
+    }
+
+    /**
+     * Creates the canonical tree with the given path lengths.
+     * Values are ordered by the length of their path and then by the value, and each value gets the next path in order.
+     * Therefore, the tree can be stored with only the lengths.
+     *
+     * @param codeLengths Length of the path of each value, 0 if the value is not in the tree
+     */
+    public static FrequencyTree fromCodeLengths(int[] codeLengths) {
+        int[] lengthCounts = new int[MAX_CODE_LENGTH + 1];
+        int valueCount = 0;
+        for (int length : codeLengths) {
+            if (length < 0 || length > MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("Invalid code length: " + length);
+            }
+            if (length == 0) continue;
+
+            lengthCounts[length]++;
+            valueCount++;
+        }
+
+        // Values in canonical order
+        int[] order = new int[valueCount];
+        int[] lengthStarts = new int[MAX_CODE_LENGTH + 2];
+        for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+            lengthStarts[length + 1] = lengthStarts[length] + lengthCounts[length];
+        }
+        for (int value = 0; value < codeLengths.length; value++) {
+            if (codeLengths[value] != 0) order[lengthStarts[codeLengths[value]]++] = value;
+        }
+
+        // In canonical order the paths are increasing when read from the first step,
+        // so values starting with the same steps are next to each other.
+        long[] paths = new long[valueCount]; // first step being the highest of the used bits
+        long path = 0;
+        int previousLength = 0;
+        for (int i = 0; i < valueCount; i++) {
+            int length = codeLengths[order[i]];
+            path <<= length - previousLength;
+            paths[i] = path++;
+            previousLength = length;
+        }
+
+        if (valueCount == 0 || path != 1L << previousLength) { // paths don't cover the whole tree
+            throw new IllegalArgumentException("Code lengths don't form a complete tree!");
+        }
+
+        return new FrequencyTree(Node.fromCodes(order, paths, codeLengths, 0, valueCount, 0), codeLengths.length);
     }
 
-    private boolean[][] generatePaths(int size) {
-        boolean[][] paths = new boolean[size][];
-        root.addPath(paths, new boolean[0]);
-        return paths;
+    /**
+     * Reads the tree as code lengths.
+     *
+     * @param n    Amount of bits used for storing each length
+     * @param size Amount of values
+     * @see #getCodeLengthBits(int)
+     */
+    public static FrequencyTree fromCodeLengths(DataFetcher data, int n, int size) {
+        int[] codeLengths = new int[size];
+        for (int value = 0; value < size; value++) {
+            for (int i = 0; i < n; i++) {
+                if (data.getNext()) codeLengths[value] |= 1 << i;
+            }
+        }
+
+        return fromCodeLengths(codeLengths);
     }
 
     public boolean[] getBits(int n) {
         return root.getBits(n);
     }
 
+    /**
+     * Returns the code lengths, each stored in n bits.
+     */
+    public boolean[] getCodeLengthBits(int n) {
+        boolean[] bits = new boolean[codeLengths.length * n];
+        for (int value = 0; value < codeLengths.length; value++) {
+            for (int i = 0; i < n; i++) {
+                bits[value * n + i] = (codeLengths[value] & (1 << i)) != 0;
+            }
+        }
+        return bits;
+    }
+
     public boolean[] getPath(short destination) {
-        return paths[destination];
+        boolean[] path = new boolean[codeLengths[destination]];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = (codes[destination] & (1 << i)) != 0;
+        }
+        return path;
+    }
+
+    /**
+     * Returns the path of the value packed into an int, first step being the lowest bit.
+     */
+    public int getCode(int value) {
+        return codes[value];
+    }
+
+    public int getCodeLength(int value) {
+        return codeLengths[value];
+    }
+
+    /**
+     * Returns the length of the path of each value, 0 for values not in the tree.
+     */
+    public int[] getCodeLengths() {
+        return codeLengths;
     }
 
     public short getValue(DataFetcher data) {
         return root.getValue(data);
     }
 
+    /**
+     * Creates a table for decoding multiple bits at once.
+     *
+     * @param bits Amount of bits read on each lookup
+     */
+    public LookupTable createLookupTable(int bits) {
+        return new LookupTable(root, bits);
+    }
+
     @Override
     public String toString() {
         return root.toString();
@@ -97,19 +214,41 @@ public class FrequencyTree {
             return bytes;
         }
 
-        public void addPath(boolean[][] paths, boolean[] start) {
+        public void addCode(int[] codes, int[] codeLengths, int code, int depth) {
             if (hasValue) {
-                paths[value] = start;
+                codes[value] = code;
+                codeLengths[value] = depth;
                 return;
             }
 
-            boolean[] pathLeft = new boolean[start.length + 1];
-            System.arraycopy(start, 0, pathLeft, 0, start.length);
-            boolean[] pathRight = pathLeft.clone();
-            pathRight[start.length] = true;
+            if (depth == MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("Paths can't be longer than " + MAX_CODE_LENGTH + " steps!");
+            }
 
-            left.addPath(paths, pathLeft);
-            right.addPath(paths, pathRight);
+            left.addCode(codes, codeLengths, code, depth + 1);
+            right.addCode(codes, codeLengths, code | (1 << depth), depth + 1);
+        }
+
+        /**
+         * Creates the node of the values from start (inclusive) to end (exclusive) in canonical order.
+         * All the values have the same first depth steps.
+         *
+         * @param paths Paths of the values, first step being the highest of the used bits
+         */
+        private static Node fromCodes(int[] order, long[] paths, int[] codeLengths, int start, int end, int depth) {
+            if (start == end) throw new IllegalArgumentException("Code lengths don't form a complete tree!");
+
+            if (codeLengths[order[start]] == depth) {
+                if (end - start > 1) throw new IllegalArgumentException("Code lengths don't form a complete tree!");
+                return new Node((short) order[start]);
+            }
+
+            // Values going left come first
+            int middle = start;
+            while (middle < end && ((paths[middle] >>> (codeLengths[order[middle]] - depth - 1)) & 1) == 0) middle++;
+
+            return new Node(fromCodes(order, paths, codeLengths, start, middle, depth + 1),
+                    fromCodes(order, paths, codeLengths, middle, end, depth + 1));
         }
 
         public short getValue(DataFetcher data) {
@@ -125,6 +264,47 @@ public class FrequencyTree {
         }
     }
 
+    /**
+     * Table indexed with the next {@link #bits} bits of data, first bit being the lowest.
+     * <p>
+     * If the path of the value is at most {@link #bits} long, the entry is {@code value << 8 | path length}.
+     * Otherwise, the entry is {@code -1 - index} of the node in {@link #nodes} reached after {@link #bits} bits,
+     * from which the rest of the path is read one bit at a time.
+     */
+    public static class LookupTable {
+        public final int bits;
+        public final int[] entries;
+        public final Node[] nodes;
+
+        private LookupTable(Node root, int bits) {
+            this.bits = bits;
+            entries = new int[1 << bits];
+
+            ArrayList<Node> longPaths = new ArrayList<>();
+            fill(root, 0, 0, longPaths);
+            nodes = longPaths.toArray(new Node[0]);
+        }
+
+        private void fill(Node node, int depth, int path, ArrayList<Node> longPaths) {
+            if (node.hasValue) {
+                // Every entry starting with the path decodes to the value
+                for (int end = 0; end < 1 << (bits - depth); end++) {
+                    entries[path | (end << depth)] = (node.value << 8) | depth;
+                }
+                return;
+            }
+
+            if (depth == bits) {
+                longPaths.add(node);
+                entries[path] = -longPaths.size();
+                return;
+            }
+
+            fill(node.left, depth + 1, path, longPaths);
+            fill(node.right, depth + 1, path | (1 << depth), longPaths);
+        }
+    }
+
     public interface DataFetcher {
         boolean getNext();
     }
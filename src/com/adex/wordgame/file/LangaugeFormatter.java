@@ -1,40 +1,168 @@
 package com.adex.wordgame.file;
 
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Used for formatting word list from source format into a list of words.
  * Also filters out words containing invalid characters such as hyphens.
+ * <p>
+ * The source is read in chunks of whole lines through a file channel and the words are written as each chunk is formatted,
+ * so memory use depends on the chunk size instead of the size of the source.
  */
 public class LangaugeFormatter {
 
+    public static final int CHUNK_SIZE = 1 << 22;
+
     public static void main(String[] args) throws IOException {
         formatWikipedia("resources/languages/raw/english2.txt", "resources/languages/raw/english.txt");
     }
 
     public static void formatWikipedia(String in, String out) throws IOException {
-        String[] s1 = new String(DataReader.getFileContent(in)).split("\n");
+        formatWikipedia(in, out, false);
+    }
+
+    /**
+     * Writes the second column of each tab separated line in upper case, one word on each line.
+     * Words with other characters than A-Z after converting to upper case are left out, as are lines without a second column.
+     *
+     * @param parallel if true, chunks are formatted on the common fork-join pool while the next ones are read.
+     *                 At most one chunk more than the parallelism of the pool is held in memory.
+     */
+    public static void formatWikipedia(String in, String out, boolean parallel) throws IOException {
+        int maxPending = parallel ? ForkJoinPool.getCommonPoolParallelism() + 1 : 1;
+        ArrayDeque<CompletableFuture<ByteBuffer>> pending = new ArrayDeque<>();
+        boolean first = true; // the first word has no line break in front of it
+
+        try (FileChannel input = FileChannel.open(Path.of(in));
+             OutputStream output = new BufferedOutputStream(Files.newOutputStream(Path.of(out)), 1 << 16)) {
+
+            byte[] carry = new byte[0]; // start of a line which continues in the next chunk
+            while (true) {
+                byte[] chunk = Arrays.copyOf(carry, Math.max(CHUNK_SIZE, 2 * carry.length));
+                ByteBuffer buffer = ByteBuffer.wrap(chunk);
+                buffer.position(carry.length);
+
+                int read = 0;
+                while (buffer.hasRemaining() && read >= 0) read = input.read(buffer);
+
+                int length = buffer.position();
+                boolean ended = read < 0;
+
+                // The chunk ends after its last line break, unless the source ended
+                int end = length;
+                if (!ended) {
+                    while (end > 0 && chunk[end - 1] != '\n') end--;
+                    if (end == 0) { // a line longer than the chunk
+                        carry = chunk;
+                        continue;
+                    }
+                }
+                carry = Arrays.copyOfRange(chunk, end, length);
+
+                int chunkEnd = end;
+                pending.add(parallel
+                        ? CompletableFuture.supplyAsync(() -> formatChunk(chunk, chunkEnd))
+                        : CompletableFuture.completedFuture(formatChunk(chunk, chunkEnd)));
+
+                while (pending.size() >= maxPending || (ended && !pending.isEmpty())) {
+                    first = write(pending.poll().join(), output, first);
+                }
+
+                if (ended) break;
+            }
+        }
+    }
 
-        ArrayList<String> s2 = new ArrayList<>();
-        for (String s : s1) {
-            String s3 = s.split("\t")[1].toUpperCase(Locale.ROOT);
-            if (!s3.matches("^[A-Z]+$"))
-                continue;
+    /**
+     * Writes the words of a chunk, each of them starting with a line break.
+     *
+     * @return whether the next word is still the first one
+     */
+    private static boolean write(ByteBuffer words, OutputStream output, boolean first) throws IOException {
+        if (!words.hasRemaining()) return first;
 
-            s2.add("\n" + s3);
+        if (first) words.get(); // line break
+        output.write(words.array(), words.position(), words.remaining());
+        return false;
+    }
+
+    /**
+     * Formats the lines of the chunk from the beginning to {@code end} (exclusive).
+     * Letters are converted byte by byte, and only words with other characters than ASCII are converted as strings.
+     *
+     * @return the words, each of them starting with a line break
+     */
+    private static ByteBuffer formatChunk(byte[] chunk, int end) {
+        byte[] words = new byte[end + 1]; // words are never longer than their lines
+        int length = 0;
+
+        int lineStart = 0;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && chunk[lineEnd] != '\n') lineEnd++;
+
+            // Finding the second column
+            int start = lineStart;
+            while (start < lineEnd && chunk[start] != '\t') start++;
+            start++;
+            int wordEnd = start;
+            while (wordEnd < lineEnd && chunk[wordEnd] != '\t') wordEnd++;
+
+            if (start < wordEnd) {
+                words[length] = '\n';
+                int wordLength = formatWord(chunk, start, wordEnd, words, length + 1);
+                if (wordLength > 0) length += 1 + wordLength;
+            }
+
+            lineStart = lineEnd + 1;
         }
 
-        s2.set(0, s2.get(0).substring(1));
+        return ByteBuffer.wrap(words, 0, length);
+    }
+
+    /**
+     * Writes the word in upper case into the array.
+     *
+     * @return length of the word or 0 if it contains other characters than A-Z in upper case
+     */
+    private static int formatWord(byte[] source, int from, int to, byte[] target, int offset) {
+        for (int i = from; i < to; i++) {
+            byte b = source[i];
+            if (b >= 'a' && b <= 'z') b -= 'a' - 'A';
+            else if (b < 'A' || b > 'Z') {
+                if (b >= 0) return 0; // other ASCII characters
+                return formatNonAsciiWord(source, from, to, target, offset); // letters such as ß can convert to A-Z
+            }
+
+            target[offset + i - from] = b;
+        }
+
+        return to - from;
+    }
+
+    private static int formatNonAsciiWord(byte[] source, int from, int to, byte[] target, int offset) {
+        String word = new String(source, from, to - from, StandardCharsets.UTF_8).toUpperCase(Locale.ROOT);
+        if (word.length() > to - from) return 0; // doesn't fit, can't be A-Z as every letter takes a byte
 
-        FileWriter writer = new FileWriter(out);
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'A' || c > 'Z') return 0;
 
-        for (String s : s2) {
-            writer.write(s);
+            target[offset + i] = (byte) c;
         }
 
-        writer.flush();
+        return word.length();
     }
 }
@@ -1,44 +1,55 @@
 package com.adex.wordgame.file;
 
+import com.adex.wordgame.WordTrie;
+
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 
 /**
  * Used for filtering too short and long words out.
  * Compresses languages when a new one is added.
+ * Can also compile them into the {@link CompiledLanguage} format, which loads without decoding.
+ * <p>
+ * The raw words are streamed from the file into the compressor, see {@link FilteredWords},
+ * so only the words of the language need to fit in memory when compiling.
  */
 public class LanguageCreator {
 
     public static void main(String[] args) {
-        createLanguage("english", 4, 12, "\n");
+        createLanguage("english", 4, 12, "\n", true);
     }
 
     public static void createLanguage(String filename, int minLength, int maxLength, String wordSeparator) {
+        createLanguage(filename, minLength, maxLength, wordSeparator, false);
+    }
+
+    /**
+     * @param wordSeparator single ASCII character between the raw words
+     * @param compile       if true, the language is also written in the compiled format.
+     *                      Otherwise an existing compiled language is deleted, as it would be loaded instead of the new words.
+     */
+    public static void createLanguage(String filename, int minLength, int maxLength, String wordSeparator, boolean compile) {
+        if (wordSeparator.length() != 1) throw new IllegalArgumentException("Word separator must be a single character!");
+
+        Path wordsPath = Path.of("resources/languages/raw/" + filename + ".txt");
+        FilteredWords words = new FilteredWords(wordsPath, wordSeparator.charAt(0), minLength, maxLength);
 
-        String[] rawWords;
         String[] rawLetters;
         try {
-            rawWords = new String(DataReader.getFileContent("resources/languages/raw/" + filename + ".txt")).split(wordSeparator);
+            if (!Files.isReadable(wordsPath)) throw new IOException("Can't read " + wordsPath);
             rawLetters = new String(DataReader.getFileContent("resources/languages/raw/" + filename + "_letters.txt")).split("\n");
         } catch (IOException e) {
             System.out.println("Failed to read source file:\n" + e.getMessage() + "\n" + Arrays.toString(e.getStackTrace()));
             return;
         }
 
-        // Filter words
-        ArrayList<String> validWords = new ArrayList<>((int) (rawWords.length * 0.8f));
-        for (String word : rawWords) {
-            if (word.length() < minLength || word.length() > maxLength) continue;
-
-            validWords.add(word);
-        }
-
-        StringBuilder sb = new StringBuilder();
-        for (String word : validWords) sb.append(",").append(word);
-
         // Read letter data;
         int letterCount = rawLetters.length;
         int[] scores = new int[letterCount];
@@ -50,11 +61,37 @@ public class LanguageCreator {
             frequencies[i] = Integer.parseInt(data[2]);
         }
 
-        byte[] encoded = FileCompressor.encode(sb.substring(1).getBytes(StandardCharsets.UTF_8), scores, frequencies);
-
+        // Encoding into a temporary file, so a failure doesn't leave a partial language
+        Path path = Path.of("resources/languages/" + filename + ".lng");
+        Path temporary = path.resolveSibling(filename + ".lng.tmp");
         try {
-            writeFile(encoded, "resources/languages/" + filename + ".lng");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+                FileCompressor.encodeInBlocks(words, scores, frequencies, FileCompressor.BLOCK_PAIRS, out);
+            }
+
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
             System.out.println("Successfully wrote language: " + filename);
+        } catch (IOException e) {
+            System.out.println("Failed to write file:\n" + e.getMessage() + "\n" + Arrays.toString(e.getStackTrace()));
+            return;
+        }
+
+        if (!compile) {
+            try {
+                if (Files.deleteIfExists(Path.of(DataReader.getCompiledLanguagePath(filename)))) {
+                    System.out.println("Deleted outdated compiled language: " + filename);
+                }
+            } catch (IOException e) {
+                System.out.println("Failed to delete outdated compiled language:\n" + e.getMessage() + "\n" + Arrays.toString(e.getStackTrace()));
+            }
+            return;
+        }
+
+        try {
+            ArrayList<String> validWords = words.readWords();
+            WordTrie trie = new WordTrie(validWords.toArray(new String[0]), letterCount);
+            new CompiledLanguage(Files.readAllBytes(path), scores, frequencies, trie).write(DataReader.getCompiledLanguagePath(filename));
+            System.out.println("Successfully compiled language: " + filename);
         } catch (IOException e) {
             System.out.println("Failed to write file:\n" + e.getMessage() + "\n" + Arrays.toString(e.getStackTrace()));
         }
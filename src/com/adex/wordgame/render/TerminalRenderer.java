@@ -0,0 +1,175 @@
+package com.adex.wordgame.render;
+
+import com.adex.wordgame.WordGame;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Draws a game on an ANSI terminal.
+ * The first frame is drawn fully, after which only the cells which changed since the previous frame are written,
+ * by moving the cursor to them with escape codes.
+ * <p>
+ * The previous frame and the output buffer are reused, so frames without changes in size don't allocate.
+ * The game is only read, see {@link WordGame#getDisplayedRow(int, char[])}.
+ */
+public class TerminalRenderer {
+
+    private static final byte ESCAPE = 0x1b;
+
+    private final OutputStream out;
+
+    private int width;
+    private int height;
+    private char[][] frame; // previous frame, top row first
+    private char[] row;
+
+    private byte[] output = new byte[256];
+    private int length;
+
+    public TerminalRenderer(OutputStream out) {
+        this.out = out;
+    }
+
+    public TerminalRenderer() {
+        this(System.out);
+    }
+
+    /**
+     * Draws the game, writing only the changes to the previous frame.
+     * The cursor is left on the line below the board.
+     */
+    public void render(WordGame game) {
+        render(game, true);
+    }
+
+    /**
+     * Draws the changes to the previous frame like {@link #render(WordGame)}, but writes nothing if no cell changed.
+     *
+     * @return whether anything was written
+     */
+    public boolean renderChanges(WordGame game) {
+        return render(game, false);
+    }
+
+    private boolean render(WordGame game, boolean moveCursor) {
+        if (frame == null || game.getWidth() != width || game.getHeight() != height) {
+            redraw(game);
+            return true;
+        }
+
+        length = 0;
+        for (int line = 0; line < height; line++) {
+            game.getDisplayedRow(height - 1 - line, row);
+            char[] previous = frame[line];
+
+            int x = 0;
+            while (x < width) {
+                if (row[x] == previous[x]) {
+                    x++;
+                    continue;
+                }
+
+                // Writing the run of changed cells
+                moveCursor(line + 1, x + 2);
+                while (x < width && row[x] != previous[x]) {
+                    append(row[x]);
+                    previous[x] = row[x];
+                    x++;
+                }
+            }
+        }
+
+        if (length == 0 && !moveCursor) return false;
+
+        moveCursor(height + 2, 1);
+        flush();
+        return true;
+    }
+
+    /**
+     * Clears the screen and draws the whole game.
+     */
+    public void redraw(WordGame game) {
+        width = game.getWidth();
+        height = game.getHeight();
+        frame = new char[height][width];
+        row = new char[width];
+
+        for (int line = 0; line < height; line++) {
+            game.getDisplayedRow(height - 1 - line, frame[line]);
+        }
+
+        length = 0;
+        appendEscape("[2J");
+        moveCursor(1, 1);
+        for (char[] cells : frame) {
+            append('|');
+            for (char c : cells) append(c);
+            append('|');
+            append('\n');
+        }
+        append(' ');
+        for (byte b : "—".repeat(width).getBytes(StandardCharsets.UTF_8)) appendByte(b);
+        append('\n');
+        flush();
+    }
+
+    /**
+     * Forgets the previous frame, so the next frame is drawn fully.
+     */
+    public void reset() {
+        frame = null;
+    }
+
+    /**
+     * Moves the cursor to the 1-based position and clears everything after it.
+     */
+    private void moveCursor(int line, int column) {
+        appendByte(ESCAPE);
+        append('[');
+        appendNumber(line);
+        append(';');
+        appendNumber(column);
+        append('H');
+
+        if (line > height) appendEscape("[J");
+    }
+
+    private void appendEscape(String code) {
+        appendByte(ESCAPE);
+        for (int i = 0; i < code.length(); i++) append(code.charAt(i));
+    }
+
+    private void appendNumber(int number) {
+        if (number >= 10) appendNumber(number / 10);
+        append((char) ('0' + number % 10));
+    }
+
+    /**
+     * Letters, borders and escape codes are ASCII, so they are written as single bytes.
+     */
+    private void append(char c) {
+        appendByte((byte) c);
+    }
+
+    private void appendByte(byte b) {
+        if (length == output.length) {
+            byte[] bigger = new byte[output.length * 2];
+            System.arraycopy(output, 0, bigger, 0, length);
+            output = bigger;
+        }
+
+        output[length++] = b;
+    }
+
+    private void flush() {
+        try {
+            out.write(output, 0, length);
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("Failed to draw game:\n" + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.adex.wordgame.replay;
+
+import com.adex.wordgame.WordGame;
+
+/**
+ * Actions of a game which are recorded into a {@link ReplayLog}.
+ * The code of an action is its ordinal, so new actions must be added to the end.
+ */
+public enum Action {
+    MOVE_LEFT,
+    MOVE_RIGHT,
+    ROTATE_CLOCKWISE,
+    ROTATE_COUNTER_CLOCKWISE,
+    DROP_DOWN_BY_ONE,
+    DROP_DOWN_FULL,
+    TICK;
+
+    private static final Action[] ACTIONS = values();
+
+    public static Action of(int code) {
+        return ACTIONS[code];
+    }
+
+    public static boolean isValid(int code) {
+        return code >= 0 && code < ACTIONS.length;
+    }
+
+    /**
+     * Performs the action on the game.
+     *
+     * @return false if the game ended
+     */
+    public boolean perform(WordGame game) {
+        switch (this) {
+            case MOVE_LEFT -> game.moveLeft();
+            case MOVE_RIGHT -> game.moveRight();
+            case ROTATE_CLOCKWISE -> game.rotateClockwise();
+            case ROTATE_COUNTER_CLOCKWISE -> game.rotateCounterClockwise();
+            case DROP_DOWN_BY_ONE -> {
+                return game.dropDownByOne();
+            }
+            case DROP_DOWN_FULL -> {
+                return game.dropDownFull();
+            }
+            case TICK -> {
+                return game.tick();
+            }
+        }
+
+        return true;
+    }
+}
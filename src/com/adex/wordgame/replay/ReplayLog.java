@@ -0,0 +1,118 @@
+package com.adex.wordgame.replay;
+
+import com.adex.wordgame.WordList;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Everything needed to play a game again: the seed of its random, language, size and actions.
+ * The score of the game is stored so replays can be checked against it.
+ * <p>
+ * In binary the log starts with {@link #MAGIC}, the version and the ordinal of the language as bytes,
+ * the width and height as ints, the seed as a long, and the score and action count as ints.
+ * The rest are the codes of the actions, 4 bits each, lower bits of a byte being the first.
+ *
+ * @see ReplayRecorder
+ * @see Replayer
+ */
+public class ReplayLog {
+
+    public static final int MAGIC = 0x57475250; // "WGRP"
+    public static final int VERSION = 1;
+
+    /**
+     * Bytes before the actions
+     */
+    public static final int HEADER_LENGTH = 30;
+
+    public static final int BITS_PER_ACTION = 4;
+
+    public final long seed;
+    public final WordList.Language language;
+    public final int width;
+    public final int height;
+    public final int score;
+
+    public final int actionCount;
+    private final byte[] actions;
+
+    /**
+     * @param actions codes of the actions packed as in the binary form, not copied
+     */
+    public ReplayLog(long seed, WordList.Language language, int width, int height, int score, byte[] actions, int actionCount) {
+        this.seed = seed;
+        this.language = language;
+        this.width = width;
+        this.height = height;
+        this.score = score;
+        this.actions = actions;
+        this.actionCount = actionCount;
+    }
+
+    /**
+     * Returns the code of the action at the index.
+     *
+     * @see Action#of(int)
+     */
+    public int getActionCode(int index) {
+        return (actions[index >>> 1] >>> ((index & 1) * BITS_PER_ACTION)) & 0xf;
+    }
+
+    public Action getAction(int index) {
+        return Action.of(getActionCode(index));
+    }
+
+    public byte[] toBytes() {
+        int actionBytes = (actionCount + 1) / 2;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + actionBytes);
+
+        buffer.putInt(MAGIC).put((byte) VERSION).put((byte) language.ordinal());
+        buffer.putInt(width).putInt(height).putLong(seed).putInt(score).putInt(actionCount);
+        buffer.put(actions, 0, actionBytes);
+
+        return buffer.array();
+    }
+
+    /**
+     * Reads a log from its binary form.
+     * Every action is checked, so replaying the log doesn't fail on invalid codes.
+     */
+    public static ReplayLog fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        try {
+            if (buffer.getInt() != MAGIC) throw new IllegalArgumentException("Not a replay log!");
+
+            int version = buffer.get();
+            if (version != VERSION) throw new IllegalArgumentException("Unsupported replay log version " + version);
+
+            int languageIndex = buffer.get() & 0xff;
+            WordList.Language[] languages = WordList.Language.values();
+            if (languageIndex >= languages.length) throw new IllegalArgumentException("Invalid language " + languageIndex);
+
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            long seed = buffer.getLong();
+            int score = buffer.getInt();
+            int actionCount = buffer.getInt();
+
+            if (width <= 0 || height <= 0) throw new IllegalArgumentException("Invalid size " + width + "x" + height);
+            if (actionCount < 0 || buffer.remaining() != (actionCount + 1L) / 2) {
+                throw new IllegalArgumentException("Invalid action count " + actionCount);
+            }
+
+            byte[] actions = new byte[buffer.remaining()];
+            buffer.get(actions);
+
+            ReplayLog log = new ReplayLog(seed, languages[languageIndex], width, height, score, actions, actionCount);
+            for (int i = 0; i < actionCount; i++) {
+                if (!Action.isValid(log.getActionCode(i))) throw new IllegalArgumentException("Invalid action at " + i);
+            }
+
+            return log;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Replay log is too short!");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.adex.wordgame.replay;
+
+import com.adex.wordgame.WordGame;
+import com.adex.wordgame.WordList;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Records the actions of a game into a {@link ReplayLog}.
+ * The game is created by the recorder, so its random is known to come from the seed.
+ */
+public class ReplayRecorder {
+
+    private final long seed;
+    private final WordList.Language language;
+    private final int width;
+    private final int height;
+
+    private final WordGame game;
+
+    private byte[] actions;
+    private int actionCount;
+
+    public ReplayRecorder(long seed, WordList.Language language, int width, int height) {
+        this.seed = seed;
+        this.language = language;
+        this.width = width;
+        this.height = height;
+
+        actions = new byte[256];
+        actionCount = 0;
+
+        game = WordGame.create(width, height, new Random(seed), WordList.get(language));
+        game.setRecorder(this);
+    }
+
+    public ReplayRecorder(long seed, WordList.Language language) {
+        this(seed, language, WordGame.DEFAULT_GAME_WIDTH, WordGame.DEFAULT_GAME_HEIGHT);
+    }
+
+    /**
+     * Adds the action to the end of the log.
+     * Called by the game before performing the action.
+     */
+    public void record(Action action) {
+        int index = actionCount >>> 1;
+        if (index == actions.length) actions = Arrays.copyOf(actions, actions.length * 2);
+
+        actions[index] |= (byte) (action.ordinal() << ((actionCount & 1) * ReplayLog.BITS_PER_ACTION));
+        actionCount++;
+    }
+
+    /**
+     * Returns the recorded game.
+     */
+    public WordGame getGame() {
+        return game;
+    }
+
+    public int getActionCount() {
+        return actionCount;
+    }
+
+    /**
+     * Returns a log of the actions so far and the current score of the game.
+     * Recording can continue afterwards.
+     */
+    public ReplayLog getLog() {
+        return new ReplayLog(seed, language, width, height, game.getScore(), Arrays.copyOf(actions, (actionCount + 1) / 2), actionCount);
+    }
+}
@@ -0,0 +1,113 @@
+package com.adex.wordgame.replay;
+
+import com.adex.wordgame.WordGame;
+import com.adex.wordgame.WordList;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays games from their logs without rendering them.
+ * <p>
+ * The game and random are reused between logs with the same language and size,
+ * so replaying a log mostly allocates the falling tiles.
+ * A replayer is not thread safe, but {@link #replayAll(List)} keeps one for each thread of a fork-join pool.
+ */
+public class Replayer {
+
+    /**
+     * Ranges with at most this many logs are replayed on one thread
+     */
+    private static final int LOGS_PER_TASK = 16;
+
+    private static final ThreadLocal<Replayer> REPLAYERS = ThreadLocal.withInitial(Replayer::new);
+
+    private final Random random;
+    private WordGame game;
+    private WordList.Language language;
+
+    public Replayer() {
+        random = new Random();
+        game = null;
+        language = null;
+    }
+
+    /**
+     * Performs every action of the log on a new game and returns the score.
+     */
+    public int replay(ReplayLog log) {
+        random.setSeed(log.seed); // same as a new random with the seed
+
+        if (game == null || language != log.language || game.getWidth() != log.width || game.getHeight() != log.height) {
+            game = WordGame.create(log.width, log.height, random, WordList.get(log.language));
+            language = log.language;
+        } else {
+            game.reset();
+        }
+
+        for (int i = 0; i < log.actionCount; i++) {
+            Action.of(log.getActionCode(i)).perform(game);
+        }
+
+        return game.getScore();
+    }
+
+    /**
+     * Checks if replaying the log gives the score stored in it.
+     */
+    public boolean verify(ReplayLog log) {
+        return replay(log) == log.score;
+    }
+
+    /**
+     * Returns the game of the latest replay.
+     */
+    public WordGame getGame() {
+        return game;
+    }
+
+    /**
+     * Replays the logs on the common fork-join pool.
+     *
+     * @return replayed score of each log
+     */
+    public static int[] replayAll(List<ReplayLog> logs) {
+        return replayAll(logs, ForkJoinPool.commonPool());
+    }
+
+    public static int[] replayAll(List<ReplayLog> logs, ForkJoinPool pool) {
+        int[] scores = new int[logs.size()];
+        pool.invoke(new Task(logs, scores, 0, logs.size()));
+        return scores;
+    }
+
+    @SuppressWarnings("serial") // never serialized
+    private static class Task extends RecursiveAction {
+
+        private final List<ReplayLog> logs;
+        private final int[] scores;
+        private final int start;
+        private final int end;
+
+        private Task(List<ReplayLog> logs, int[] scores, int start, int end) {
+            this.logs = logs;
+            this.scores = scores;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= LOGS_PER_TASK) {
+                Replayer replayer = REPLAYERS.get();
+                for (int i = start; i < end; i++) scores[i] = replayer.replay(logs.get(i));
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new Task(logs, scores, start, middle), new Task(logs, scores, middle, end));
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.adex.wordgame.server;
+
+import com.adex.wordgame.WordGame;
+import com.adex.wordgame.WordList;
+import com.adex.wordgame.render.TerminalRenderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hosts games over TCP, one game for each connection.
+ * <p>
+ * Clients send the same keys as the terminal game: a, d, e, q, s and x, each of them being performed when received.
+ * Frames are sent as the terminal renderer draws them, so after the first frame only changed cells are sent.
+ * When the game ends the score is sent and the connection is closed.
+ * <p>
+ * Every connection is read and written by a single selector thread and every game is ticked by a single scheduler thread,
+ * so idle players only cost their game and buffers. Games are locked while either thread uses them.
+ * Only sessions whose frame changed on a tick are sent anything.
+ * Every game shares the same word list.
+ * <p>
+ * A failing connection or game only closes its own session.
+ * If accepting fails, for example when out of file descriptors, accepting is paused for {@link #ACCEPT_RETRY_MILLIS}.
+ */
+public class GameServer implements Closeable {
+
+    public static final long DEFAULT_TICK_MILLIS = 500;
+
+    private static final int INPUT_BUFFER_SIZE = 64;
+    private static final int ACCEPT_BACKLOG = 1024;
+    public static final long ACCEPT_RETRY_MILLIS = 100;
+
+    private final WordList wordList;
+    private final int width;
+    private final int height;
+    private final long tickMillis;
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final SelectionKey acceptKey;
+    private long acceptPausedAt; // System.nanoTime when accepting failed, only used while paused
+    private boolean acceptPaused;
+    private final ScheduledExecutorService scheduler;
+    private final Thread selectorThread;
+
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<Session> changed = new ConcurrentLinkedQueue<>(); // sessions with frames to send
+
+    private volatile boolean running;
+
+    public GameServer(InetSocketAddress address, WordList wordList, int width, int height, long tickMillis) throws IOException {
+        this.wordList = wordList;
+        this.width = width;
+        this.height = height;
+        this.tickMillis = tickMillis;
+
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, ACCEPT_BACKLOG);
+        serverChannel.configureBlocking(false);
+        acceptKey = serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "GameServer ticks"));
+        selectorThread = new Thread(this::run, "GameServer selector");
+    }
+
+    /**
+     * @param port port to listen on, 0 for any free port
+     */
+    public GameServer(int port, WordList wordList, long tickMillis) throws IOException {
+        this(new InetSocketAddress(port), wordList, WordGame.DEFAULT_GAME_WIDTH, WordGame.DEFAULT_GAME_HEIGHT, tickMillis);
+    }
+
+    /**
+     * Starts accepting connections and ticking the games.
+     */
+    public void start() {
+        running = true;
+        selectorThread.start();
+        scheduler.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the amount of connected players.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Stops the server and closes every connection.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        scheduler.shutdownNow();
+        selector.wakeup();
+
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Session session : sessions) session.close();
+        serverChannel.close();
+        selector.close();
+    }
+
+    private void tick() {
+        boolean changed = false;
+        for (Session session : sessions) {
+            if (session.tick()) changed = true;
+        }
+
+        if (changed) selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(acceptPaused ? ACCEPT_RETRY_MILLIS : 0);
+
+                if (acceptPaused && System.nanoTime() - acceptPausedAt >= TimeUnit.MILLISECONDS.toNanos(ACCEPT_RETRY_MILLIS)) {
+                    acceptPaused = false;
+                    acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+                }
+
+                Session session;
+                while ((session = changed.poll()) != null) handle(session, null);
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) continue;
+
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    handle((Session) key.attachment(), key);
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            System.out.println("Game server stopped:\n" + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads and writes the session as the key is ready, or flushes its frames if there is no key.
+     * Closes only the session if it fails.
+     */
+    private void handle(Session session, SelectionKey key) {
+        try {
+            if (key == null) {
+                session.flush();
+                return;
+            }
+
+            if (key.isReadable()) session.read();
+            if (key.isValid() && key.isWritable()) session.flush();
+        } catch (RuntimeException e) {
+            System.out.println("Closing connection after an error:\n" + e);
+            session.close();
+        }
+    }
+
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                // Accepting again right away would usually fail the same way
+                System.out.println("Failed to accept connection:\n" + e.getMessage());
+                acceptKey.interestOps(0);
+                acceptPaused = true;
+                acceptPausedAt = System.nanoTime();
+                return;
+            }
+
+            if (channel == null) return;
+
+            try {
+                channel.configureBlocking(false);
+
+                Session session = new Session(channel);
+                session.key = channel.register(selector, SelectionKey.OP_READ, session);
+                sessions.add(session);
+                session.flush();
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Failed to start session:\n" + e.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException closeException) {
+                    System.out.println("Failed to close connection:\n" + closeException.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * A connected player and their game.
+     * The game, renderer and frames are only used while holding the lock of the session.
+     * The channel and output are only used by the selector thread.
+     */
+    private class Session {
+
+        private final SocketChannel channel;
+        private SelectionKey key;
+
+        private final WordGame game;
+        private final TerminalRenderer renderer;
+        private final ByteArrayOutputStream frames; // rendered but not yet sent
+        private boolean ended;
+
+        private final ByteBuffer input;
+        private ByteBuffer output;
+        private final AtomicBoolean queued; // whether the session is in the changed queue
+
+        private Session(SocketChannel channel) {
+            this.channel = channel;
+
+            game = WordGame.create(width, height, new Random(), wordList);
+            frames = new ByteArrayOutputStream();
+            renderer = new TerminalRenderer(frames);
+            renderer.redraw(game);
+            ended = false;
+
+            input = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+            output = ByteBuffer.allocate(0);
+            queued = new AtomicBoolean(false);
+        }
+
+        /**
+         * Called by the scheduler thread.
+         *
+         * @return whether the frame changed
+         */
+        private boolean tick() {
+            synchronized (this) {
+                if (ended) return false;
+
+                try {
+                    if (!game.tick()) ended = true;
+                } catch (RuntimeException e) {
+                    System.out.println("Failed to tick game:\n" + e.getMessage());
+                    ended = true;
+                }
+
+                if (!render()) return false;
+            }
+
+            if (queued.compareAndSet(false, true)) changed.add(this);
+            return true;
+        }
+
+        private void read() {
+            input.clear();
+            try {
+                if (channel.read(input) < 0) {
+                    close();
+                    return;
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+
+            input.flip();
+            synchronized (this) {
+                if (ended) return;
+
+                try {
+                    while (input.hasRemaining() && !ended) {
+                        switch (input.get()) {
+                            case 'a' -> game.moveLeft();
+                            case 'd' -> game.moveRight();
+                            case 'e' -> game.rotateClockwise();
+                            case 'q' -> game.rotateCounterClockwise();
+                            case 's' -> ended = !game.dropDownByOne();
+                            case 'x' -> ended = !game.dropDownFull();
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    System.out.println("Failed to update game:\n" + e.getMessage());
+                    ended = true;
+                }
+
+                if (!render()) return;
+            }
+
+            flush();
+        }
+
+        /**
+         * Renders the changes since the previous frame, and the score if the game ended.
+         *
+         * @return whether anything was rendered
+         */
+        private boolean render() {
+            boolean rendered = renderer.renderChanges(game);
+            if (ended) frames.writeBytes(("Score: " + game.getScore() + "\n").getBytes(StandardCharsets.UTF_8));
+            return rendered || ended;
+        }
+
+        /**
+         * Sends as much of the rendered frames as the channel accepts.
+         * The rest is sent when the channel is writable again.
+         */
+        private void flush() {
+            queued.set(false);
+            if (!channel.isOpen()) return;
+
+            try {
+                while (true) {
+                    if (!output.hasRemaining()) {
+                        boolean done;
+                        synchronized (this) {
+                            done = frames.size() == 0;
+                            if (!done) {
+                                output = ByteBuffer.wrap(frames.toByteArray());
+                                frames.reset();
+                            }
+                        }
+
+                        if (done) break;
+                    }
+
+                    channel.write(output);
+                    if (output.hasRemaining()) break;
+                }
+
+                if (output.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+
+                key.interestOps(SelectionKey.OP_READ);
+                synchronized (this) {
+                    if (ended && frames.size() == 0) close();
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            sessions.remove(this);
+            if (key != null) key.cancel();
+
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.out.println("Failed to close connection:\n" + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.adex.wordgame.simulation;
+
+import com.adex.wordgame.WordGame;
+
+import java.util.Random;
+
+/**
+ * Decides the moves of a simulated player.
+ * Policies are shared between the threads of a simulation, so they must not keep state of a single game.
+ */
+@FunctionalInterface
+public interface MovePolicy {
+
+    /**
+     * Doesn't move, so tiles fall down on tick.
+     */
+    MovePolicy NONE = (game, random) -> true;
+
+    /**
+     * Does a random action or nothing.
+     */
+    MovePolicy RANDOM = (game, random) -> switch (random.nextInt(7)) {
+        case 0 -> {
+            game.moveLeft();
+            yield true;
+        }
+        case 1 -> {
+            game.moveRight();
+            yield true;
+        }
+        case 2 -> {
+            game.rotateClockwise();
+            yield true;
+        }
+        case 3 -> {
+            game.rotateCounterClockwise();
+            yield true;
+        }
+        case 4 -> game.dropDownByOne();
+        case 5 -> game.dropDownFull();
+        default -> true;
+    };
+
+    /**
+     * Called before each tick.
+     * May move, rotate and drop the tile of the game.
+     *
+     * @param random Random of the player, separate from the one the game uses for tiles
+     * @return false if the game ended during the move
+     */
+    boolean move(WordGame game, Random random);
+}
@@ -0,0 +1,104 @@
+package com.adex.wordgame.simulation;
+
+import com.adex.wordgame.WordGame;
+import com.adex.wordgame.WordList;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays games without rendering them.
+ * Games are independent and split between the threads of a fork-join pool.
+ * <p>
+ * Game {@code i} of a run with seed {@code s} uses seed {@code s + i} for its tiles,
+ * so the results are the same regardless of the amount of threads.
+ */
+public class Simulation {
+
+    public static final int DEFAULT_MAX_TICKS = 100000;
+
+    /**
+     * Ranges with at most this many games are played on one thread
+     */
+    private static final int GAMES_PER_TASK = 16;
+
+    private final WordList wordList;
+    private final MovePolicy policy;
+
+    private final int width;
+    private final int height;
+    private final int maxTicks;
+
+    public Simulation(WordList wordList, MovePolicy policy, int width, int height, int maxTicks) {
+        this.wordList = wordList;
+        this.policy = policy;
+        this.width = width;
+        this.height = height;
+        this.maxTicks = maxTicks;
+    }
+
+    public Simulation(WordList wordList, MovePolicy policy) {
+        this(wordList, policy, WordGame.DEFAULT_GAME_WIDTH, WordGame.DEFAULT_GAME_HEIGHT, DEFAULT_MAX_TICKS);
+    }
+
+    /**
+     * Plays the games on the common fork-join pool.
+     */
+    public SimulationResult run(int games, long seed) {
+        return run(games, seed, ForkJoinPool.commonPool());
+    }
+
+    public SimulationResult run(int games, long seed, ForkJoinPool pool) {
+        return pool.invoke(new Task(seed, 0, games));
+    }
+
+    /**
+     * Plays one game until it ends or the tick limit is reached and adds it to the result.
+     */
+    public void play(long seed, SimulationResult result) {
+        WordGame game = WordGame.create(width, height, new Random(seed), wordList);
+        Random playerRandom = new Random(~seed);
+
+        long ticks = 0;
+        while (ticks < maxTicks) {
+            if (!policy.move(game, playerRandom)) break;
+
+            ticks++;
+            if (!game.tick()) break;
+        }
+
+        result.add(game.getScore(), ticks);
+    }
+
+    @SuppressWarnings("serial") // never serialized
+    private class Task extends RecursiveTask<SimulationResult> {
+
+        private final long seed;
+        private final int start;
+        private final int end;
+
+        private Task(long seed, int start, int end) {
+            this.seed = seed;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (end - start <= GAMES_PER_TASK) {
+                SimulationResult result = new SimulationResult();
+                for (int i = start; i < end; i++) play(seed + i, result);
+                return result;
+            }
+
+            int middle = (start + end) >>> 1;
+            Task left = new Task(seed, start, middle);
+            left.fork();
+
+            SimulationResult result = new Task(seed, middle, end).compute();
+            result.combine(left.join());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.adex.wordgame.simulation;
+
+/**
+ * Aggregated scores of simulated games.
+ * Each thread fills its own result and the results are combined afterwards.
+ */
+public class SimulationResult {
+
+    private int games;
+    private long ticks;
+
+    private long scoreSum;
+    private double scoreSquareSum;
+    private int minScore = Integer.MAX_VALUE;
+    private int maxScore = Integer.MIN_VALUE;
+
+    public void add(int score, long ticks) {
+        games++;
+        this.ticks += ticks;
+
+        scoreSum += score;
+        scoreSquareSum += (double) score * score;
+        if (score < minScore) minScore = score;
+        if (score > maxScore) maxScore = score;
+    }
+
+    public void combine(SimulationResult other) {
+        games += other.games;
+        ticks += other.ticks;
+
+        scoreSum += other.scoreSum;
+        scoreSquareSum += other.scoreSquareSum;
+        if (other.minScore < minScore) minScore = other.minScore;
+        if (other.maxScore > maxScore) maxScore = other.maxScore;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getScoreSum() {
+        return scoreSum;
+    }
+
+    public int getMinScore() {
+        return games > 0 ? minScore : 0;
+    }
+
+    public int getMaxScore() {
+        return games > 0 ? maxScore : 0;
+    }
+
+    public double getAverageScore() {
+        return games > 0 ? (double) scoreSum / games : 0;
+    }
+
+    public double getScoreStandardDeviation() {
+        if (games == 0) return 0;
+
+        double average = getAverageScore();
+        return Math.sqrt(Math.max(0, scoreSquareSum / games - average * average));
+    }
+
+    @Override
+    public String toString() {
+        return "Games: " + games + ", ticks: " + ticks + "\n"
+                + "Score: average " + String.format("%.3f", getAverageScore())
+                + ", deviation " + String.format("%.3f", getScoreStandardDeviation())
+                + ", min " + getMinScore() + ", max " + getMaxScore();
+    }
+}